@@ -0,0 +1,129 @@
+package eu.miltema.slimdbsync;
+
+import java.util.*;
+
+import jdk.jfr.*;
+
+/**
+ * Emits sync timings as JDK Flight Recorder events (category SlimDbSync). Requires a JVM with JFR (JDK 11+ or 8u262+),
+ * so it is compiled separately from the library and published as artifact with classifier "jfr".
+ * Each event begins and ends with the measured operation, so its start time and duration line up with other events of the recording.
+ * Statement events are committed after their transaction has been committed
+ */
+public class JfrSyncListener implements SyncListener {
+
+	@Name("eu.miltema.slimdbsync.Phase")
+	@Label("Schema Sync Phase")
+	@Category("SlimDbSync")
+	static class PhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+	}
+
+	@Name("eu.miltema.slimdbsync.CatalogQuery")
+	@Label("Schema Catalog Query")
+	@Category("SlimDbSync")
+	static class CatalogQueryEvent extends Event {
+		@Label("Query")
+		String query;
+	}
+
+	@Name("eu.miltema.slimdbsync.Statement")
+	@Label("Schema DDL Statement")
+	@Category("SlimDbSync")
+	static class StatementEvent extends Event {
+		@Label("Kind")
+		String kind;
+
+		@Label("Table")
+		String table;
+
+		@Label("SQL")
+		String sql;
+
+		@Label("Lock Wait")
+		@Description("Time lost to timed out attempts and retry backoff; waiting within the successful attempt is included in event duration")
+		@Timespan(Timespan.NANOSECONDS)
+		long lockWait;
+
+		@Label("Failed")
+		boolean failed;
+	}
+
+	// phases and catalog queries are started and completed on the same thread
+	private final ThreadLocal<Map<String, PhaseEvent>> phases = ThreadLocal.withInitial(HashMap::new);
+	private final ThreadLocal<Map<String, CatalogQueryEvent>> queries = ThreadLocal.withInitial(HashMap::new);
+	// statements of rolled back transactions are never completed, so they must not be held strongly
+	private final Map<DdlStatement, StatementEvent> statements = Collections.synchronizedMap(new WeakHashMap<>());
+
+	@Override
+	public void phaseStarted(String phase) {
+		PhaseEvent event = new PhaseEvent();
+		if (event.isEnabled()) {
+			event.phase = phase;
+			event.begin();
+			phases.get().put(phase, event);
+		}
+	}
+
+	@Override
+	public void phaseCompleted(String phase, long nanos) {
+		PhaseEvent event = phases.get().remove(phase);
+		if (event != null)
+			event.commit();
+	}
+
+	@Override
+	public void catalogQueryStarted(String query) {
+		CatalogQueryEvent event = new CatalogQueryEvent();
+		if (event.isEnabled()) {
+			event.query = query;
+			event.begin();
+			queries.get().put(query, event);
+		}
+	}
+
+	@Override
+	public void catalogQueryCompleted(String query, long nanos) {
+		CatalogQueryEvent event = queries.get().remove(query);
+		if (event != null)
+			event.commit();
+	}
+
+	@Override
+	public void statementStarted(DdlStatement statement) {
+		StatementEvent event = new StatementEvent();
+		if (event.isEnabled()) {
+			event.kind = statement.kind.name();
+			event.table = statement.tableName;
+			event.sql = statement.sql;
+			event.begin();
+			statements.put(statement, event);
+		}
+	}
+
+	@Override
+	public void statementEnded(DdlStatement statement) {
+		StatementEvent event = statements.get(statement);
+		if (event != null)
+			event.end();
+	}
+
+	@Override
+	public void statementExecuted(DdlStatement statement, long nanos, long lockWaitNanos) {
+		StatementEvent event = statements.remove(statement);
+		if (event != null) {
+			event.lockWait = lockWaitNanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void statementFailed(DdlStatement statement, long nanos, Exception e) {
+		StatementEvent event = statements.remove(statement);
+		if (event != null) {
+			event.failed = true;
+			event.commit();
+		}
+	}
+}
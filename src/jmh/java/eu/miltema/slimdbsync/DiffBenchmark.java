@@ -0,0 +1,38 @@
+package eu.miltema.slimdbsync;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Loading current schema from in-memory catalogs and detecting changes against a synthetic model
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DiffBenchmark {
+
+	@Param({"10", "1000", "20000"})
+	public int tables;
+
+	private SchemaGenerator generator;
+	private SyncContext ctx;
+
+	@Setup
+	public void setup() {
+		generator = new SchemaGenerator(null, SyntheticSchema.databaseCatalog(tables));
+		ctx = generator.newContext();
+		SyntheticSchema.initModel(ctx, tables);
+	}
+
+	@Benchmark
+	public List<DdlStatement> detectChanges() throws Exception {
+		generator.loadCurrentSchema(ctx);
+		List<DdlStatement> statements = new ArrayList<>();
+		generator.detectChanges(ctx, statements, new ArrayList<>(), new LinkedHashMap<>());
+		return statements;
+	}
+}
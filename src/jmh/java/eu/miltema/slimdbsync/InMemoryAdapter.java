@@ -0,0 +1,72 @@
+package eu.miltema.slimdbsync;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import eu.miltema.slimdbsync.def.*;
+import eu.miltema.slimdbsync.pg.PgAdapter;
+import eu.miltema.slimorm.Database;
+
+/**
+ * PostgreSQL adapter, which returns current schema from in-memory catalogs instead of querying database
+ */
+class InMemoryAdapter extends PgAdapter {
+
+	List<SequenceDef> sequences = new ArrayList<>();
+	List<TableDef> tables = new ArrayList<>();
+	List<PrimaryKeyDef> primaryKeys = new ArrayList<>();
+	List<ForeignKeyDef> foreignKeys = new ArrayList<>();
+	List<UniqueDef> uniques = new ArrayList<>();
+	List<CheckDef> checks = new ArrayList<>();
+	List<IndexDef> indexes = new ArrayList<>();
+	List<EnumTypeDef> enumTypes = new ArrayList<>();
+
+	InMemoryAdapter() {
+		super("public");
+	}
+
+	@Override
+	public Collection<SequenceDef> loadCurrentSequences(Database db) {
+		return sequences;
+	}
+
+	@Override
+	public Collection<TableDef> loadCurrentTables(Database db) {
+		return tables;
+	}
+
+	@Override
+	public Collection<PrimaryKeyDef> loadCurrentPrimaryKeys(Database db) {
+		return primaryKeys;
+	}
+
+	@Override
+	public Collection<ForeignKeyDef> loadCurrentForeignKeys(Database db) {
+		return foreignKeys;
+	}
+
+	@Override
+	public Collection<UniqueDef> loadCurrentUniques(Database db) {
+		return uniques;
+	}
+
+	@Override
+	public Collection<CheckDef> loadCurrentChecks(Database db) {
+		return checks;
+	}
+
+	@Override
+	public Collection<IndexDef> loadCurrentIndexes(Database db) {
+		return indexes;
+	}
+
+	@Override
+	public List<IndexDef> canonicalIndexes(Database db, String table, List<IndexDef> indexes) {
+		return indexes.stream().map(IndexDef::copy).collect(Collectors.toList());//model expressions are taken as printed by database
+	}
+
+	@Override
+	public Collection<EnumTypeDef> loadCurrentEnumTypes(Database db) {
+		return enumTypes;
+	}
+}
@@ -0,0 +1,43 @@
+package eu.miltema.slimdbsync;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+import eu.miltema.slimdbsync.pg.PgAdapter;
+import eu.miltema.slimorm.Database;
+
+/**
+ * Building model from entity classes. Each invocation uses a new Database, so that entity properties are not cached;
+ * no database connection is opened
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ModelBenchmark {
+
+	@Param({"10", "1000", "20000"})
+	public int tables;
+
+	private Class<?>[] entityClasses;
+	private SchemaGenerator generator;
+
+	@Setup
+	public void compileEntities() throws Exception {
+		entityClasses = SyntheticSchema.compileEntities(tables);
+	}
+
+	@Setup(Level.Invocation)
+	public void createGenerator() {
+		generator = new SchemaGenerator(new Database("org.postgresql.Driver", "jdbc:postgresql://localhost/benchmark", "benchmark", "benchmark"), new PgAdapter("public"));
+	}
+
+	@Benchmark
+	public SyncContext initModelTables() {
+		SyncContext ctx = generator.newContext();
+		generator.initModelTables(ctx, entityClasses);
+		return ctx;
+	}
+}
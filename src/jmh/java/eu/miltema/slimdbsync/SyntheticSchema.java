@@ -0,0 +1,158 @@
+package eu.miltema.slimdbsync;
+
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+import javax.tools.*;
+
+import eu.miltema.slimdbsync.def.*;
+
+/**
+ * Synthetic schemas of given size. Table i has columns id (primary key from sequence), name (unique), amount (indexed),
+ * created and parent_id (foreign key to table i-1)
+ */
+class SyntheticSchema {
+
+	private static class SyntheticColumnDef extends ColumnDef {
+		boolean isPrimaryKey;
+
+		@Override
+		public boolean isPrimaryKey() {
+			return isPrimaryKey;
+		}
+	}
+
+	/**
+	 * @param count entity count
+	 * @return entity classes, compiled at runtime; requires JDK
+	 * @throws Exception when compilation fails
+	 */
+	static Class<?>[] compileEntities(int count) throws Exception {
+		Path dir = Files.createTempDirectory("slimdbsync-jmh");
+		Files.createDirectories(dir.resolve("bench"));
+		List<String> args = new ArrayList<>(Arrays.asList("-nowarn", "-d", dir.toString(), "-cp", System.getProperty("java.class.path")));
+		for(int i = 0; i < count; i++) {
+			Path source = dir.resolve("bench/T" + i + ".java");
+			Files.write(source, Arrays.asList(
+				"package bench;",
+				"import javax.persistence.*;",
+				"@Table(name = \"t" + i + "\")",
+				"public class T" + i + " {",
+				"	@Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = \"t" + i + "_seq\") public Integer id;",
+				"	@Column(unique = true) public String name;",
+				"	public Integer amount;",
+				"	public java.sql.Timestamp created;",
+				(i == 0 ? "" : "	@ManyToOne public T" + (i - 1) + " parent;"),
+				"}"));
+			args.add(source.toString());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null)
+			throw new IllegalStateException("Compiling synthetic entities requires JDK");
+		if (compiler.run(null, null, null, args.toArray(new String[0])) != 0)
+			throw new IllegalStateException("Compiling synthetic entities failed");
+		URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, SyntheticSchema.class.getClassLoader());
+		Class<?>[] classes = new Class<?>[count];
+		for(int i = 0; i < count; i++)
+			classes[i] = loader.loadClass("bench.T" + i);
+		return classes;
+	}
+
+	/**
+	 * Fill model part of the context
+	 * @param ctx sync context
+	 * @param count table count
+	 */
+	static void initModel(SyncContext ctx, int count) {
+		ctx.modelSequences = new HashMap<>();
+		ctx.modelTables = new HashMap<>();
+		ctx.modelPrimaryKeys = new HashMap<>();
+		ctx.modelForeignKeys = new HashMap<>();
+		ctx.modelUniques = new HashMap<>();
+		ctx.modelChecks = new HashMap<>();
+		ctx.modelIndexes = new HashMap<>();
+		ctx.modelEnumTypes = new HashMap<>();
+		for(int i = 0; i < count; i++) {
+			TableDef table = table(i, "integer", true);
+			ctx.modelTables.put(table.name, table);
+			ctx.modelSequences.put(table.name + "_seq", new SequenceDef(table.name + "_seq"));
+			ctx.modelPrimaryKeys.put(table.name, new PrimaryKeyDef(table.name, "id", null));
+			if (i > 0) {
+				ForeignKeyDef fk = new ForeignKeyDef(table.name, "parent_id", "t" + (i - 1), "id", null);
+				ctx.modelForeignKeys.put(fk.localTable + "/" + fk.localColumn, fk);
+			}
+			UniqueDef unique = unique(table.name, null);
+			ctx.modelUniques.put(unique.toString(), unique);
+			IndexDef index = index(table.name, null);
+			ctx.modelIndexes.put(index.toString(), index);
+		}
+	}
+
+	/**
+	 * Database catalog, which differs from model: every 100th table is missing, and every 10th table has
+	 * amount as bigint, no created column and no index
+	 * @param count table count in model
+	 * @return adapter with in-memory catalog
+	 */
+	static InMemoryAdapter databaseCatalog(int count) {
+		InMemoryAdapter adapter = new InMemoryAdapter();
+		for(int i = 0; i < count; i++) {
+			if (i % 100 == 99)
+				continue;
+			boolean changed = (i % 10 == 9);
+			TableDef table = table(i, changed ? "bigint" : "integer", !changed);
+			adapter.tables.add(table);
+			adapter.sequences.add(new SequenceDef(table.name + "_seq"));
+			adapter.primaryKeys.add(new PrimaryKeyDef(table.name, "id", table.name + "_pkey"));
+			if (i > 0 && i % 100 != 0)
+				adapter.foreignKeys.add(new ForeignKeyDef(table.name, "parent_id", "t" + (i - 1), "id", table.name + "_parent_id_fkey"));
+			adapter.uniques.add(unique(table.name, table.name + "_name"));
+			if (!changed)
+				adapter.indexes.add(index(table.name, table.name + "_amount_idx"));
+		}
+		return adapter;
+	}
+
+	private static TableDef table(int i, String amountType, boolean withCreated) {
+		TableDef table = new TableDef();
+		table.name = "t" + i;
+		table.columns = new HashMap<>();
+		SyntheticColumnDef id = column(table, "id", "integer", false);
+		id.isPrimaryKey = true;
+		id.sourceSequence = table.name + "_seq";
+		column(table, "name", "character varying", true);
+		column(table, "amount", amountType, true);
+		if (withCreated)
+			column(table, "created", "timestamp without time zone", true);
+		if (i > 0)
+			column(table, "parent_id", "integer", true);
+		return table;
+	}
+
+	private static SyntheticColumnDef column(TableDef table, String name, String type, boolean isNullable) {
+		SyntheticColumnDef column = new SyntheticColumnDef();
+		column.name = name;
+		column.type = type;
+		column.isNullable = isNullable;
+		column.ordinal = table.columns.size();
+		table.columns.put(name, column);
+		table.columnOrder.add(name);
+		return column;
+	}
+
+	private static UniqueDef unique(String tableName, String name) {
+		UniqueDef unique = new UniqueDef();
+		unique.name = name;
+		unique.tableName = tableName;
+		unique.columns = new String[] {"name"};
+		return unique;
+	}
+
+	private static IndexDef index(String tableName, String name) {
+		IndexDef index = new IndexDef();
+		index.name = name;
+		index.tableName = tableName;
+		index.columns = new String[] {"amount"};
+		return index;
+	}
+}
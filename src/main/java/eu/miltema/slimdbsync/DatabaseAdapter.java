@@ -10,10 +10,10 @@ public interface DatabaseAdapter {
 	/**
 	 * Load current sequences from database
 	 * @param db database link
-	 * @return set of sequence names
+	 * @return sequence definitions
 	 * @throws Exception when any error occurs
 	 */
-	Set<String> loadCurrentSequenceNames(Database db) throws Exception;
+	Collection<SequenceDef> loadCurrentSequences(Database db) throws Exception;
 
 	/**
 	 * Load current table definitions (incl column definitions) from database
@@ -64,12 +64,95 @@ public interface DatabaseAdapter {
 	Collection<IndexDef> loadCurrentIndexes(Database db) throws Exception;
 
 	/**
-	 * Provide CREATE TABLE statement (including column definitions)
+	 * Let database parse keys and predicates of model indexes and print them in the same form as loadCurrentIndexes does
+	 * @param db database link
+	 * @param table existing table of the indexes
+	 * @param indexes model indexes of the table
+	 * @return copies of indexes with printed keys and predicates, in the same order; null in place of an index, which database rejects
+	 * (for example, it refers to a column not created yet); empty list when table does not exist
+	 * @throws Exception when any other error occurs
+	 */
+	List<IndexDef> canonicalIndexes(Database db, String table, List<IndexDef> indexes) throws Exception;
+
+	/**
+	 * Load current enumerated types from database
+	 * @param db database link
+	 * @return enumerated type definitions
+	 * @throws Exception when any error occurs
+	 */
+	Collection<EnumTypeDef> loadCurrentEnumTypes(Database db) throws Exception;
+
+	/**
+	 * Load model fingerprint stored by previous sync
+	 * @param db database link
+	 * @return fingerprint or null, if none has been stored
+	 * @throws Exception when any error occurs
+	 */
+	String loadModelFingerprint(Database db) throws Exception;
+
+	/**
+	 * Provide statements for storing model fingerprint (incl creating the metadata table, if missing)
+	 * @param fingerprint model fingerprint
+	 * @return statements for storing the fingerprint
+	 */
+	String storeModelFingerprint(String fingerprint);
+
+	/**
+	 * Compute a digest of current schema in database with a single query. The digest must match
+	 * the MD5 of sorted newline-separated lines, as produced by SchemaDigest.modelLines
+	 * @param db database link
+	 * @param overrideColumns table|column entries for columns with manual column definition; type, nullability and default are not compared for these
+	 * @param managedNames when not null, only these tables, table|column entries and sequences are included
+	 * @param storageTables tables with declared storage parameters; storage parameters and persistence of other tables are not included
+	 * @return digest
+	 * @throws Exception when any error occurs
+	 */
+	String loadSchemaDigest(Database db, Set<String> overrideColumns, Set<String> managedNames, Set<String> storageTables) throws Exception;
+
+	/**
+	 * Provide CREATE TABLE statement (including column definitions and partitioning, but not partitions)
 	 * @param tableDef table definition
 	 * @return DDL for table creation
 	 */
 	String createTableWithColumns(TableDef tableDef);
 
+	/**
+	 * @param tableName partitioned table name
+	 * @param partitionName partition table name
+	 * @param bounds partition bounds as declared in @Partition
+	 * @return DDL for creating a partition of partitioned table
+	 */
+	String createPartition(String tableName, String partitionName, String bounds);
+
+	/**
+	 * @param tableName table name
+	 * @param set storage parameters to be set, name -> value
+	 * @param reset storage parameters to be reset to defaults
+	 * @return DDL for changing storage parameters of existing table
+	 */
+	String alterStorageParameters(String tableName, Map<String, String> set, Collection<String> reset);
+
+	/**
+	 * @param tableName table name
+	 * @param unlogged true for unlogged table
+	 * @return DDL for changing existing table to unlogged or logged
+	 */
+	String alterPersistence(String tableName, boolean unlogged);
+
+	/**
+	 * @param tableName table name
+	 * @param tablespace tablespace name
+	 * @return DDL for moving existing table into tablespace
+	 */
+	String alterTableTablespace(String tableName, String tablespace);
+
+	/**
+	 * @param indexDef existing index
+	 * @param tablespace tablespace name
+	 * @return DDL for moving existing index into tablespace
+	 */
+	String alterIndexTablespace(IndexDef indexDef, String tablespace);
+
 	/**
 	 * Provide DROP TABLE statement
 	 * @param tablename table name
@@ -104,10 +187,23 @@ public interface DatabaseAdapter {
 
 	/**
 	 * Provide CREATE SEQUENCE statement
-	 * @param sequenceName sequence name
+	 * @param sequenceDef sequence definition
 	 * @return DDL for sequence creation
 	 */
-	Object createSequence(String sequenceName);
+	String createSequence(SequenceDef sequenceDef);
+
+	/**
+	 * @param sequenceDef sequence definition
+	 * @return DDL for changing start, increment and cache of existing sequence
+	 */
+	String alterSequence(SequenceDef sequenceDef);
+
+	/**
+	 * @param oldName current sequence name
+	 * @param newName new sequence name
+	 * @return DDL for renaming the sequence
+	 */
+	String renameSequence(String oldName, String newName);
 
 	/**
 	 * Provide DROP SEQUENCE statement
@@ -119,7 +215,7 @@ public interface DatabaseAdapter {
 	/**
 	 * Provide ALTER TABLE statement for creating primary key
 	 * @param tableName table name
-	 * @param columnName column name
+	 * @param columnName column name; comma-separated column names for composite key
 	 * @return DDL for creating primary key
 	 */
 	String addPrimaryKey(String tableName, String columnName);
@@ -161,18 +257,32 @@ public interface DatabaseAdapter {
 	 */
 	String sqlTypeForJSon();
 
+	/**
+	 * Get sql type for JSON columns stored in decomposed binary form, which can be indexed
+	 * @return sql type
+	 */
+	String sqlTypeForBinaryJSon();
+
 	/**
 	 * @return true, if database supports IDENTITY
 	 */
 	boolean supportsIdentityStrategy();
 
+	/**
+	 * @param fromType current sql type of the column
+	 * @param toType new sql type of the column
+	 * @return cost class of changing column type
+	 */
+	TypeChange classifyTypeChange(String fromType, String toType);
+
 	/**
 	 * @param tableName table name
 	 * @param columnName column name
-	 * @param sqlType sql type
+	 * @param fromType current sql type
+	 * @param sqlType new sql type
 	 * @return DDL for altering column type
 	 */
-	String alterColumnType(String tableName, String columnName, String sqlType);
+	String alterColumnType(String tableName, String columnName, String fromType, String sqlType);
 
 	/**
 	 * @param tableName table name
@@ -182,6 +292,14 @@ public interface DatabaseAdapter {
 	 */
 	String alterColumnNullability(String tableName, String columnName, boolean isNullable);
 
+	/**
+	 * Provide statements for making a column NOT NULL without holding an exclusive lock during table scan
+	 * @param tableName table name
+	 * @param columnName column name
+	 * @return statements to be executed one by one, outside of transaction block
+	 */
+	List<String> setNotNullOnline(String tableName, String columnName);
+
 	/**
 	 * @param tableName table name
 	 * @param columnName column name
@@ -190,12 +308,56 @@ public interface DatabaseAdapter {
 	 */
 	String alterColumnDefaultValue(String tableName, String columnName, String sourceSequence);
 
+	/**
+	 * @param tableName table name
+	 * @param columnName column name
+	 * @param identity identity sequence parameters
+	 * @param previousSequence sequence, which provided default values until now; identity continues from its next value. Null if none
+	 * @return DDL for turning existing column into identity column
+	 */
+	List<String> addIdentity(String tableName, String columnName, SequenceDef identity, String previousSequence);
+
+	/**
+	 * @param tableName table name
+	 * @param columnName column name
+	 * @param identity new identity sequence parameters
+	 * @return DDL for changing identity sequence parameters
+	 */
+	String alterIdentity(String tableName, String columnName, SequenceDef identity);
+
+	/**
+	 * @param tableName table name
+	 * @param columnName column name
+	 * @param nextSequence sequence, which will provide default values from now on; it continues from next value of identity. Null if none
+	 * @return DDL for turning identity column into ordinary column
+	 */
+	List<String> dropIdentity(String tableName, String columnName, String nextSequence);
+
+	/**
+	 * @param foreignKeyDef foreign key definition
+	 * @return DDL for creating a named foreign key constraint, which is not validated against existing rows
+	 */
+	String createForeignKeyNotValid(ForeignKeyDef foreignKeyDef);
+
+	/**
+	 * @param foreignKeyDef foreign key definition
+	 * @return DDL for validating a foreign key constraint created by createForeignKeyNotValid
+	 */
+	String validateForeignKey(ForeignKeyDef foreignKeyDef);
+
 	/**
 	 * @param uniqueDef unique constraint definition
 	 * @return DDL for creating unique constraint
 	 */
 	String createUnique(UniqueDef uniqueDef);
 
+	/**
+	 * @param uniqueDef unique constraint definition
+	 * @return DDL statements for building the unique index without blocking writes and then attaching it as unique constraint;
+	 * must be executed one by one outside transaction block
+	 */
+	List<String> createUniqueConcurrently(UniqueDef uniqueDef);
+
 	/**
 	 * @param uniqueDef unique constraint definition
 	 * @return DDL for dropping unique constraint
@@ -208,12 +370,51 @@ public interface DatabaseAdapter {
 	 */
 	String createCheck(CheckDef checkDef);
 
+	/**
+	 * @param checkDef check constraint definition
+	 * @return DDL for creating a named check constraint, which is not validated against existing rows
+	 */
+	String createCheckNotValid(CheckDef checkDef);
+
+	/**
+	 * @param checkDef check constraint definition
+	 * @return DDL for validating a check constraint created by createCheckNotValid
+	 */
+	String validateCheck(CheckDef checkDef);
+
 	/**
 	 * @param checkDef check constraint definition
 	 * @return DDL for dropping check constraint
 	 */
 	String dropCheck(CheckDef checkDef);
 
+	/**
+	 * @param enumClass Java enum
+	 * @return name of native enumerated type for this enum
+	 */
+	String enumTypeName(Class<?> enumClass);
+
+	/**
+	 * @param enumTypeDef enumerated type definition
+	 * @return DDL for creating enumerated type
+	 */
+	String createEnumType(EnumTypeDef enumTypeDef);
+
+	/**
+	 * @param typeName enumerated type name
+	 * @param value new value
+	 * @param before existing value, which the new value is placed before; null if after is used
+	 * @param after existing value, which the new value is placed after; null to place the new value before or at the end
+	 * @return DDL for adding a value to enumerated type
+	 */
+	String addEnumValue(String typeName, String value, String before, String after);
+
+	/**
+	 * @param typeName enumerated type name
+	 * @return DDL for dropping enumerated type
+	 */
+	String dropEnumType(String typeName);
+
 	/**
 	 * @param indexDef index definition
 	 * @return DDL for creating index
@@ -225,4 +426,78 @@ public interface DatabaseAdapter {
 	 * @return DDL for dropping index
 	 */
 	String dropIndex(IndexDef indexDef);
+
+	/**
+	 * @param indexDef index definition
+	 * @return DDL for creating index without blocking writes; must be executed outside transaction block
+	 */
+	String createIndexConcurrently(IndexDef indexDef);
+
+	/**
+	 * @param indexDef index definition
+	 * @return DDL for dropping index without blocking writes; must be executed outside transaction block
+	 */
+	String dropIndexConcurrently(IndexDef indexDef);
+
+	/**
+	 * @param millis max time to wait for a lock
+	 * @param transactionScoped true to apply until the end of current transaction, false to apply until reset
+	 * @return statement for limiting lock wait time
+	 */
+	String setLockTimeout(long millis, boolean transactionScoped);
+
+	/**
+	 * @return statement for restoring default lock wait time
+	 */
+	String resetLockTimeout();
+
+	/**
+	 * @param memoryMegabytes memory for a single index build; 0 to keep database default
+	 * @param parallelWorkers parallel workers for a single index build; negative to keep database default
+	 * @param transactionScoped true to apply until the end of current transaction, false to apply until reset
+	 * @return statements for setting index build resources of current session
+	 */
+	List<String> setMaintenanceSettings(long memoryMegabytes, int parallelWorkers, boolean transactionScoped);
+
+	/**
+	 * @param memoryMegabytes memory, which was set with setMaintenanceSettings
+	 * @param parallelWorkers parallel workers, which were set with setMaintenanceSettings
+	 * @return statements for restoring default index build resources
+	 */
+	List<String> resetMaintenanceSettings(long memoryMegabytes, int parallelWorkers);
+
+	/**
+	 * @return query, which returns identifier of current transaction's snapshot; the snapshot can be imported while this transaction is open
+	 */
+	String exportSnapshot();
+
+	/**
+	 * @param snapshotId snapshot identifier, returned by exportSnapshot query
+	 * @return statements for starting current transaction with given snapshot; these must precede any query in the transaction
+	 */
+	List<String> importSnapshot(String snapshotId);
+
+	/**
+	 * @param ddl DDL statement
+	 * @return true, if statement does not block reads or writes of others while waiting for locks; such statements need no lock timeout
+	 */
+	boolean isNonBlocking(String ddl);
+
+	/**
+	 * @param statement DDL statement
+	 * @return strongest table lock taken by the statement, or null if no table is locked
+	 */
+	String lockLevel(DdlStatement statement);
+
+	/**
+	 * @param e exception
+	 * @return true, if the exception was caused by lock timeout
+	 */
+	boolean isLockTimeout(Exception e);
+
+	/**
+	 * @param schema schema name
+	 * @return adapter for the same database type, which loads catalog of the given schema
+	 */
+	DatabaseAdapter forSchema(String schema);
 }
@@ -0,0 +1,72 @@
+package eu.miltema.slimdbsync;
+
+import java.util.*;
+
+/**
+ * Dependencies between DDL statements. A statement depends on the previous statement of each table it touches
+ * (target table and referenced table), so statements of a table keep their detection order, while statements of unrelated tables are independent.
+ * Dropping a table also depends on the previous statements of tables referring to it, since their foreign keys are dropped with it.
+ * Sequence and type statements are barriers: sequences and types are created before and dropped after all table changes.
+ * Statements, which must be committed together, form a single unit
+ */
+class DdlGraph {
+
+	/**
+	 * Consecutive identity and default changes of a table form a unit: between dropping one source of column values and adding another,
+	 * concurrent inserts would get no default, or identity values not yet continued from the previous sequence
+	 * @param statements statements in detection order
+	 * @return units in detection order; each unit is executed in a single transaction
+	 */
+	static List<List<DdlStatement>> units(List<DdlStatement> statements) {
+		List<List<DdlStatement>> units = new ArrayList<>();
+		DdlStatement previous = null;
+		for(DdlStatement statement : statements) {
+			if (previous != null && isColumnSourceChange(previous) && isColumnSourceChange(statement) && previous.tableName.equals(statement.tableName))
+				units.get(units.size() - 1).add(statement);
+			else units.add(new ArrayList<>(Arrays.asList(statement)));
+			previous = statement;
+		}
+		return units;
+	}
+
+	private static boolean isColumnSourceChange(DdlStatement statement) {
+		return statement.kind == DdlStatement.Kind.ALTER_COLUMN_IDENTITY || statement.kind == DdlStatement.Kind.ALTER_COLUMN_DEFAULT;
+	}
+
+	/**
+	 * @param units statement units in detection order
+	 * @param referencingTables table -> tables with foreign keys referring to it; DROP TABLE ... CASCADE also changes these tables
+	 * @return for each unit, indexes of the units it directly depends on
+	 */
+	static List<List<Integer>> dependencies(List<List<DdlStatement>> units, Map<String, Set<String>> referencingTables) {
+		List<List<Integer>> dependencies = new ArrayList<>();
+		Map<String, Integer> lastOfTable = new HashMap<>();
+		Integer barrier = null;
+		for(int i = 0; i < units.size(); i++) {
+			Set<Integer> deps = new TreeSet<>();
+			if (barrier != null)
+				deps.add(barrier);
+			for(DdlStatement statement : units.get(i))
+				if (statement.tableName == null) {
+					deps.addAll(lastOfTable.values());
+					lastOfTable.clear();
+					barrier = i;
+				}
+				else for(String table : tables(statement, referencingTables))
+					if (table != null) {
+						Integer last = lastOfTable.put(table, i);
+						if (last != null && last != i)
+							deps.add(last);
+					}
+			dependencies.add(new ArrayList<>(deps));
+		}
+		return dependencies;
+	}
+
+	private static Set<String> tables(DdlStatement statement, Map<String, Set<String>> referencingTables) {
+		Set<String> tables = new HashSet<>(Arrays.asList(statement.tableName, statement.referencedTable));
+		if (statement.kind == DdlStatement.Kind.DROP_TABLE)
+			tables.addAll(referencingTables.getOrDefault(statement.tableName, Collections.emptySet()));
+		return tables;
+	}
+}
@@ -0,0 +1,60 @@
+package eu.miltema.slimdbsync;
+
+/**
+ * Single DDL statement of a migration
+ */
+public class DdlStatement {
+
+	public enum Kind {
+		CREATE_SEQUENCE, DROP_SEQUENCE, ALTER_SEQUENCE,
+		CREATE_TYPE, ALTER_TYPE, DROP_TYPE,
+		CREATE_TABLE, CREATE_PARTITION, ALTER_TABLE_STORAGE, ALTER_TABLE_PERSISTENCE, ALTER_TABLE_TABLESPACE, DROP_TABLE,
+		ADD_COLUMN, DROP_COLUMN, ALTER_COLUMN_TYPE, ALTER_COLUMN_NULLABILITY, ALTER_COLUMN_DEFAULT, ALTER_COLUMN_IDENTITY,
+		ADD_PRIMARY_KEY, DROP_PRIMARY_KEY,
+		ADD_FOREIGN_KEY, DROP_FOREIGN_KEY,
+		ADD_UNIQUE, DROP_UNIQUE,
+		ADD_CHECK, DROP_CHECK,
+		VALIDATE_CONSTRAINT,
+		CREATE_INDEX, DROP_INDEX, ALTER_INDEX_TABLESPACE
+	}
+
+	public final Kind kind;
+
+	/**
+	 * Target table; null for sequence and type statements
+	 */
+	public final String tableName;
+
+	public final String sql;
+
+	/**
+	 * True, if statement rewrites all rows of the table
+	 */
+	public final boolean rewritesTable;
+
+	/**
+	 * Table referenced by a foreign key statement; null for other statements
+	 */
+	public final String referencedTable;
+
+	public DdlStatement(Kind kind, String tableName, String sql) {
+		this(kind, tableName, sql, false);
+	}
+
+	public DdlStatement(Kind kind, String tableName, String sql, boolean rewritesTable) {
+		this(kind, tableName, sql, rewritesTable, null);
+	}
+
+	public DdlStatement(Kind kind, String tableName, String sql, boolean rewritesTable, String referencedTable) {
+		this.kind = kind;
+		this.tableName = tableName;
+		this.sql = sql;
+		this.rewritesTable = rewritesTable;
+		this.referencedTable = referencedTable;
+	}
+
+	@Override
+	public String toString() {
+		return sql;
+	}
+}
@@ -7,5 +7,31 @@ import java.lang.annotation.*;
 @Retention(RUNTIME)
 @Target({})
 public @interface Index {
+	/**
+	 * Index keys: column names or expressions, each optionally followed by sort order, for example {"created DESC NULLS LAST", "lower(name)"}
+	 */
 	String[] value();
+
+	IndexMethod method() default IndexMethod.BTREE;
+
+	/**
+	 * Operator class of keys, when not the default class of key type. For example, GIN index with jsonb_path_ops is smaller and faster than
+	 * with default jsonb_ops, but supports only containment and path queries
+	 */
+	String operatorClass() default "";
+
+	/**
+	 * Predicate of a partial index, for example "deleted IS NULL"
+	 */
+	String where() default "";
+
+	/**
+	 * Non-key columns stored in the index, so that queries can be answered from the index only
+	 */
+	String[] include() default {};
+
+	/**
+	 * Tablespace of the index; when empty, tablespace of the index is not managed
+	 */
+	String tablespace() default "";
 }
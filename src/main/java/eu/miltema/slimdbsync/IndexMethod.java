@@ -0,0 +1,5 @@
+package eu.miltema.slimdbsync;
+
+public enum IndexMethod {
+	BTREE, HASH, GIN, GIST, BRIN
+}
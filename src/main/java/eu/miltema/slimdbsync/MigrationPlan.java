@@ -0,0 +1,80 @@
+package eu.miltema.slimdbsync;
+
+import static java.util.stream.Collectors.*;
+import java.util.*;
+
+/**
+ * Changes, which sync would apply to database, with their estimated cost
+ */
+public class MigrationPlan {
+
+	public enum Phase {
+		/**
+		 * Executed in main transaction
+		 */
+		MAIN,
+
+		/**
+		 * Executed one by one after main transaction
+		 */
+		DEFERRED,
+
+		/**
+		 * Constraint validation, executed after deferred statements
+		 */
+		VALIDATION
+	}
+
+	public static class Entry {
+		public Phase phase;
+		public DdlStatement.Kind kind;
+		public String tableName;
+		public String sql;
+
+		/**
+		 * Strongest table lock taken, or null if no table is locked
+		 */
+		public String lockLevel;
+
+		public boolean rewritesTable;
+
+		/**
+		 * Statement rewrites a table larger than maxRewritePages: sync defers it (see deferLargeRewrites) or fails
+		 */
+		public boolean exceedsMaxRewritePages;
+
+		/**
+		 * Size of target table in pages, as estimated by database; 0 for new tables
+		 */
+		public long pages;
+
+		/**
+		 * Row count of target table, as estimated by database; 0 for new tables
+		 */
+		public long estimatedRows;
+
+		@Override
+		public String toString() {
+			return phase + " " + kind + (tableName == null ? "" : " " + tableName) + " [" + (lockLevel == null ? "no lock" : lockLevel) +
+					(rewritesTable ? ", rewrites " + pages + " pages" : "") + (exceedsMaxRewritePages ? ", exceeds maxRewritePages" : "") + "]: " + sql;
+		}
+	}
+
+	public List<Entry> entries = new ArrayList<>();
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	/**
+	 * @return entries, which rewrite a table
+	 */
+	public List<Entry> getRewrites() {
+		return entries.stream().filter(e -> e.rewritesTable).collect(toList());
+	}
+
+	@Override
+	public String toString() {
+		return entries.stream().map(Entry::toString).collect(joining("\n"));
+	}
+}
@@ -0,0 +1,20 @@
+package eu.miltema.slimdbsync;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.*;
+
+@Retention(RUNTIME)
+@Target({})
+public @interface Partition {
+	/**
+	 * Partition table name
+	 */
+	String name();
+
+	/**
+	 * Partition bounds, for example "FROM ('2024-01-01') TO ('2025-01-01')", "IN ('EE', 'LV')" or "WITH (MODULUS 4, REMAINDER 0)";
+	 * "DEFAULT" for default partition
+	 */
+	String bounds();
+}
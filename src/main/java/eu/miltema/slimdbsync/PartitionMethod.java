@@ -0,0 +1,5 @@
+package eu.miltema.slimdbsync;
+
+public enum PartitionMethod {
+	RANGE, LIST, HASH
+}
@@ -0,0 +1,25 @@
+package eu.miltema.slimdbsync;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the table as partitioned by a column. Declared partitions are created when missing; other partitions of the table
+ * (for example, added or detached by maintenance jobs) are left as they are.
+ * Primary key of the table is extended with partition column, since unique constraints of a partitioned table must include it
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Partitioned {
+	PartitionMethod method() default PartitionMethod.RANGE;
+
+	/**
+	 * Partition column name
+	 */
+	String column();
+
+	Partition[] partitions() default {};
+}
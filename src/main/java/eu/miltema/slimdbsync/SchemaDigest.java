@@ -0,0 +1,119 @@
+package eu.miltema.slimdbsync;
+
+import static java.util.stream.Collectors.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+
+import eu.miltema.slimdbsync.def.*;
+
+/**
+ * Canonical textual form of the model schema. Every schema element is described by a single line,
+ * lines are sorted and the result is hashed.
+ */
+class SchemaDigest {
+
+	/**
+	 * Bump this, when the canonical form or DDL generation changes in a way that requires re-syncing unchanged models
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * @param ctx sync context with initialized model
+	 * @param dropUnused value of SchemaGenerator.dropUnused
+	 * @return fingerprint of the model
+	 */
+	static String fingerprint(SyncContext ctx, boolean dropUnused) {
+		List<String> lines = modelLines(ctx);
+		lines.add("v|" + FORMAT_VERSION);
+		lines.add("x|dropUnused|" + dropUnused);
+		ctx.modelTables.values().stream().flatMap(t -> t.columns.values().stream().filter(c -> c.columnDefinitionOverride != null).map(c -> "o|" + t.name + "|" + c.name + "|" + c.columnDefinitionOverride)).forEach(lines::add);
+		ctx.modelTables.values().stream().filter(t -> t.partitioning != null).flatMap(t -> t.partitioning.partitions.entrySet().stream().map(p -> "q|" + t.name + "|" + p.getKey() + "|" + p.getValue())).forEach(lines::add);//partitions are not part of schema digest, since database may have other partitions
+		storageTables(ctx).forEach(t -> lines.add("x|storage|" + t));//tables, where undeclared storage parameters are reset
+		ctx.modelTables.values().stream().filter(t -> t.tablespace != null).forEach(t -> lines.add("x|tablespace|" + t.name + "|" + t.tablespace));//tablespaces are not part of schema digest
+		ctx.modelIndexes.values().stream().filter(i -> i.tablespace != null).forEach(i -> lines.add("x|tablespace|" + i + "|" + i.tablespace));
+		return md5(lines);
+	}
+
+	/**
+	 * @param ctx sync context with initialized model
+	 * @return one line per model schema element
+	 */
+	static List<String> modelLines(SyncContext ctx) {
+		List<String> lines = new ArrayList<>();
+		ctx.modelSequences.values().forEach(s -> lines.add("s|" + s.name + "|" + s.start + "|" + s.increment + "|" + s.cache));
+		for(TableDef t : ctx.modelTables.values()) {
+			lines.add("t|" + t.name);
+			if (t.isUnlogged)
+				lines.add("l|" + t.name);
+			if (t.partitioning != null)
+				lines.add("r|" + t.name + "|" + t.partitioning.method + "|" + t.partitioning.column);
+			if (t.storageParameters != null && !t.storageParameters.isEmpty())
+				lines.add("w|" + t.name + "|" + t.storageParameters.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).sorted().collect(joining(",")));
+			for(ColumnDef c : t.columns.values())
+				lines.add("c|" + t.name + "|" + c.name + (c.columnDefinitionOverride != null ? "" : "|" + c.type + "|" + (c.isNullable ? 1 : 0) + "|" + nvl(c.sourceSequence) + identity(c)));
+		}
+		ctx.modelPrimaryKeys.values().forEach(pk -> lines.add("p|" + pk.table + "|" + pk.column));
+		ctx.modelForeignKeys.values().forEach(fk -> lines.add("f|" + fk.localTable + "|" + fk.localColumn + "|" + fk.foreignTable + "|" + fk.foreignColumn));
+		ctx.modelUniques.values().forEach(u -> lines.add("u|" + u.tableName + "|" + String.join(",", u.columns)));
+		ctx.modelChecks.values().forEach(c -> lines.add("k|" + c.tableName + "|" + c.columnName + "|" + String.join(",", c.validValues)));
+		ctx.modelIndexes.values().forEach(i -> lines.add("i|" + i.tableName + "|" + i.keys() + "|" + i.methodWithOperatorClass() + "|" +
+				Arrays.stream(i.include).map(IndexDef::normalize).collect(joining(",")) + "|" + (i.where == null ? "" : IndexDef.normalize(i.where))));
+		ctx.modelEnumTypes.values().forEach(e -> lines.add("e|" + e.name + "|" + String.join(",", e.values)));
+		return lines;
+	}
+
+	/**
+	 * @param ctx sync context with initialized model
+	 * @return table|column entries for columns with manual column definition
+	 */
+	static Set<String> overrideColumns(SyncContext ctx) {
+		return ctx.modelTables.values().stream().flatMap(t -> t.columns.values().stream().filter(c -> c.columnDefinitionOverride != null).map(c -> t.name + "|" + c.name)).collect(toSet());
+	}
+
+	/**
+	 * @param ctx sync context with initialized model
+	 * @return names of model tables with declared storage parameters
+	 */
+	static Set<String> storageTables(SyncContext ctx) {
+		return ctx.modelTables.values().stream().filter(t -> t.storageParameters != null).map(t -> t.name).collect(toSet());
+	}
+
+	/**
+	 * @param ctx sync context with initialized model
+	 * @return names of model tables, sequences and enumerated types and table|column entries of model columns
+	 */
+	static Set<String> managedNames(SyncContext ctx) {
+		Set<String> names = new HashSet<>(ctx.modelSequences.keySet());
+		names.addAll(ctx.modelEnumTypes.keySet());
+		for(TableDef t : ctx.modelTables.values()) {
+			names.add(t.name);
+			t.columns.keySet().forEach(c -> names.add(t.name + "|" + c));
+		}
+		return names;
+	}
+
+	/**
+	 * @param lines lines in any order
+	 * @return lowercase hex MD5 of sorted lines, separated by newlines
+	 */
+	static String md5(List<String> lines) {
+		String text = lines.stream().sorted().collect(joining("\n"));
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			return String.format("%032x", new BigInteger(1, md.digest(text.getBytes(StandardCharsets.UTF_8))));
+		}
+		catch(Exception e) {
+			throw new SchemaUpdateException(e);
+		}
+	}
+
+	private static String identity(ColumnDef c) {
+		return (c.identity == null ? "" : "|identity|" + c.identity.start + "|" + c.identity.increment + "|" + c.identity.cache);
+	}
+
+	private static String nvl(String s) {
+		return (s == null ? "" : s);
+	}
+}
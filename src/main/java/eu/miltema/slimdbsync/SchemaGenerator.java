@@ -4,25 +4,57 @@ import eu.miltema.slimdbsync.def.*;
 import eu.miltema.slimdbsync.pg.PgAdapter;
 import eu.miltema.slimorm.*;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.*;
 
 import static java.util.stream.Collectors.*;
+import static eu.miltema.slimdbsync.DdlStatement.Kind.*;
 import javax.persistence.*;
-import java.sql.Statement;
+import java.sql.*;
 
 public class SchemaGenerator {
 
 	private Database db;
 	private DatabaseAdapter dbAdapter;
-	private SyncContext ctx;
 	private Consumer<String> logger = message -> {};
-	private List<String> messageElements = new ArrayList<String>();//elements for debug messages
+	private List<SyncListener> listeners = new CopyOnWriteArrayList<>();
 	private boolean dropUnused = true;
+	private boolean useFingerprint;
+	private boolean concurrentIndexes;
+	private boolean onlineNotNull;
+	private boolean notValidConstraints;
+	private boolean nativeEnums;
+	private boolean jsonb;
+	private int validationParallelism = 1;
+	private int catalogParallelism = 1;
+	private int ddlParallelism = 1;
+	private int indexParallelism = 1;
+	private long maintenanceWorkMem;
+	private int maintenanceWorkers = -1;
+	private long indexMemoryBudget;
+	private long maxRewritePages = Long.MAX_VALUE;
+	private boolean deferLargeRewrites;
+	private long lockTimeout;
+	private long lockRetryLimit = 60_000;
+	private ExecutorService schemaExecutor;
+	private int connectionBudget = 10;
+	private static final long MIN_LOCK_RETRY_DELAY = 100;
+	private static final long MAX_LOCK_RETRY_DELAY = 5_000;
+	private static final long PAGE_SIZE = 8192;
+	private static final long MIN_INDEX_BUILD_MEMORY = 64;//megabytes, PostgreSQL default maintenance_work_mem
 
 	public SchemaGenerator(Database db) {
+		this(db, new PgAdapter(db.getSchema()));
+	}
+
+	/**
+	 * @param db database link
+	 * @param dbAdapter adapter for database specific catalog queries and DDL
+	 */
+	public SchemaGenerator(Database db, DatabaseAdapter dbAdapter) {
 		this.db = db;
-		this.dbAdapter = new PgAdapter(db.getSchema());
-		this.ctx = new SyncContext();
+		this.dbAdapter = dbAdapter;
 	}
 
 	public SchemaGenerator setLogger(Consumer<String> logger) {
@@ -30,6 +62,16 @@ public class SchemaGenerator {
 		return this;
 	}
 
+	/**
+	 * Add listener for phase, catalog query and statement timings. See {@code JfrSyncListener} (artifact with classifier jfr) for JDK Flight Recorder events
+	 * @param listener listener
+	 * @return this
+	 */
+	public SchemaGenerator addListener(SyncListener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
 	/**
 	 * Synchronize database tables according to entity classes
 	 * @param entityClasses entity classes
@@ -37,11 +79,217 @@ public class SchemaGenerator {
 	 */
 	public void sync(Class<?> ... entityClasses) throws SchemaUpdateException {
 		try {
-			initModelTables(entityClasses);
-			loadCurrentSchema();
-			StringBuilder sb = new StringBuilder();
-			detectChanges(sb);
-			applyChanges(sb.toString());
+			SyncContext ctx = newContext();
+			long start = phaseStarted("initModelTables");
+			initModelTables(ctx, entityClasses);
+			phaseCompleted("initModelTables", start);
+			syncModel(ctx);
+		}
+		catch(SchemaUpdateException sue) {
+			throw sue;
+		}
+		catch(Exception e) {
+			throw new SchemaUpdateException(e);
+		}
+	}
+
+	/**
+	 * Synchronize several schemas (for example, one schema per tenant) according to the same entity classes.
+	 * Model is built once; schemas are synced concurrently on schemaExecutor, using at most connectionBudget connections at a time.
+	 * Failure of one schema does not stop syncing of other schemas
+	 * @param schemas schema names
+	 * @param databaseForSchema database link of each schema; its search_path must start with that schema.
+	 * It is called once per schema and its result is not closed by SchemaGenerator: the caller owns the data sources behind these links
+	 * @param entityClasses entity classes
+	 * @return result of each schema, in the order of schemas
+	 * @throws SchemaUpdateException when model cannot be built from entity classes
+	 */
+	public List<SchemaSyncResult> syncSchemas(Collection<String> schemas, Function<String, Database> databaseForSchema, Class<?> ... entityClasses) throws SchemaUpdateException {
+		SyncContext model = newContext();
+		initModelTables(model, entityClasses);
+		int permitsPerSchema = Math.min(connectionBudget, Math.max(1, Math.max(Math.max(catalogConnections(), validationParallelism), Math.max(ddlParallelism, indexParallelism))));
+		Semaphore connections = new Semaphore(connectionBudget, true);
+		ExecutorService executor = (schemaExecutor != null ? schemaExecutor : newSchemaExecutor());
+		try {
+			List<Future<SchemaSyncResult>> futures = new ArrayList<>();
+			for(String schema : schemas)
+				futures.add(executor.submit(() -> {
+					try {
+						connections.acquire(permitsPerSchema);
+					}
+					catch(InterruptedException ie) {
+						return new SchemaSyncResult(schema, ie, 0);
+					}
+					long start = System.nanoTime();
+					try {
+						syncModel(schemaContext(model, schema, databaseForSchema.apply(schema)));
+						return new SchemaSyncResult(schema, null, System.nanoTime() - start);
+					}
+					catch(Exception e) {
+						return new SchemaSyncResult(schema, e, System.nanoTime() - start);
+					}
+					finally {
+						connections.release(permitsPerSchema);
+					}
+				}));
+			List<SchemaSyncResult> results = new ArrayList<>();
+			for(Future<SchemaSyncResult> future : futures)
+				results.add(await(future));
+			return results;
+		}
+		catch(Exception e) {
+			throw new SchemaUpdateException(e);
+		}
+		finally {
+			if (executor != schemaExecutor)
+				executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return context of a single schema, which shares (read-only) model with other schemas
+	 */
+	private SyncContext schemaContext(SyncContext model, String schema, Database database) {
+		SyncContext ctx = newContext();
+		ctx.db = database;
+		ctx.schema = schema;
+		ctx.dbAdapter = dbAdapter.forSchema(schema);
+		ctx.logger = message -> logger.accept("[" + schema + "] " + message);
+		ctx.modelTables = model.modelTables;
+		ctx.modelSequences = model.modelSequences;
+		ctx.modelPrimaryKeys = model.modelPrimaryKeys;
+		ctx.modelForeignKeys = model.modelForeignKeys;
+		ctx.modelUniques = model.modelUniques;
+		ctx.modelChecks = model.modelChecks;
+		ctx.modelIndexes = model.modelIndexes;
+		ctx.modelEnumTypes = model.modelEnumTypes;
+		return ctx;
+	}
+
+	/**
+	 * @return virtual thread per task executor, when running on Java 21+; otherwise a pool of connectionBudget threads
+	 */
+	private ExecutorService newSchemaExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);//connection budget limits concurrency, not thread count
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(connectionBudget);
+		}
+	}
+
+	/**
+	 * Apply model of the context to its database
+	 */
+	private void syncModel(SyncContext ctx) throws Exception {
+		String fingerprint = null;
+		if (useFingerprint) {
+			fingerprint = SchemaDigest.fingerprint(ctx, dropUnused);
+			if (fingerprint.equals(catalogQuery("loadModelFingerprint", ctx.db, ctx.dbAdapter::loadModelFingerprint))) {
+				ctx.logger.accept("Model unchanged since last sync");
+				return;
+			}
+		}
+		long start = phaseStarted("loadCurrentSchema");
+		loadCurrentSchema(ctx);
+		phaseCompleted("loadCurrentSchema", start);
+		List<DdlStatement> statements = new ArrayList<>();
+		List<DdlStatement> deferred = new ArrayList<>();
+		Map<String, List<DdlStatement>> validations = new LinkedHashMap<>();
+		start = phaseStarted("detectChanges");
+		detectChanges(ctx, statements, deferred, validations);
+		phaseCompleted("detectChanges", start);
+		start = phaseStarted("applyChanges");
+		applyChanges(ctx, statements);
+		phaseCompleted("applyChanges", start);
+		start = phaseStarted("applyDeferredChanges");
+		applyDeferredChanges(ctx, deferred);
+		phaseCompleted("applyDeferredChanges", start);
+		start = phaseStarted("applyValidations");
+		applyValidations(ctx, validations);
+		phaseCompleted("applyValidations", start);
+		if (fingerprint != null && !ctx.changesPostponed)//postponed changes must be detected again during next sync
+			storeFingerprint(ctx, fingerprint);
+	}
+
+	/**
+	 * Detect changes without applying them
+	 * @param entityClasses entity classes
+	 * @return statements, which sync would execute, with lock levels and estimated table sizes
+	 * @throws SchemaUpdateException when loading current schema fails or changes are not allowed (see maxRewritePages)
+	 */
+	public MigrationPlan plan(Class<?> ... entityClasses) throws SchemaUpdateException {
+		try {
+			SyncContext ctx = newContext();
+			ctx.dryRun = true;
+			initModelTables(ctx, entityClasses);
+			loadCurrentSchema(ctx);
+			List<DdlStatement> statements = new ArrayList<>();
+			List<DdlStatement> deferred = new ArrayList<>();
+			Map<String, List<DdlStatement>> validations = new LinkedHashMap<>();
+			detectChanges(ctx, statements, deferred, validations);
+			MigrationPlan plan = new MigrationPlan();
+			statements.forEach(s -> plan.entries.add(planEntry(ctx, MigrationPlan.Phase.MAIN, s)));
+			deferred.forEach(s -> plan.entries.add(planEntry(ctx, MigrationPlan.Phase.DEFERRED, s)));
+			validations.values().stream().flatMap(List::stream).forEach(s -> plan.entries.add(planEntry(ctx, MigrationPlan.Phase.VALIDATION, s)));
+			return plan;
+		}
+		catch(SchemaUpdateException sue) {
+			throw sue;
+		}
+		catch(Exception e) {
+			throw new SchemaUpdateException(e);
+		}
+	}
+
+	/**
+	 * @return new context for a single sync, plan or verify run; generator itself holds only configuration
+	 */
+	SyncContext newContext() {
+		SyncContext ctx = new SyncContext();
+		ctx.db = db;
+		ctx.dbAdapter = dbAdapter;
+		ctx.logger = logger;
+		return ctx;
+	}
+
+	private MigrationPlan.Entry planEntry(SyncContext ctx, MigrationPlan.Phase phase, DdlStatement statement) {
+		MigrationPlan.Entry entry = new MigrationPlan.Entry();
+		entry.phase = phase;
+		entry.kind = statement.kind;
+		entry.tableName = statement.tableName;
+		entry.sql = statement.sql;
+		entry.lockLevel = ctx.dbAdapter.lockLevel(statement);
+		entry.rewritesTable = statement.rewritesTable;
+		entry.exceedsMaxRewritePages = ctx.oversizedRewrites.contains(statement);
+		TableDef table = (statement.tableName == null ? null : ctx.dbTables.get(statement.tableName));
+		if (table != null) {
+			entry.pages = table.pages;
+			entry.estimatedRows = table.estimatedRows;
+		}
+		return entry;
+	}
+
+	/**
+	 * Verify that database schema matches entity classes. Database computes a digest of its catalog in a single query,
+	 * which is compared to the digest of the model; current schema is not loaded into memory.
+	 * When dropUnused is false, tables, columns and sequences not present in the model are ignored
+	 * @param entityClasses entity classes
+	 * @return true, if database schema matches entity classes
+	 * @throws SchemaUpdateException when verification fails
+	 */
+	public boolean verify(Class<?> ... entityClasses) throws SchemaUpdateException {
+		try {
+			SyncContext ctx = newContext();
+			initModelTables(ctx, entityClasses);
+			canonicalizeModelIndexes(ctx, ctx.modelTables.keySet());
+			String modelDigest = SchemaDigest.md5(SchemaDigest.modelLines(ctx));
+			String dbDigest = catalogQuery("loadSchemaDigest", ctx.db, db -> ctx.dbAdapter.loadSchemaDigest(db, SchemaDigest.overrideColumns(ctx), dropUnused ? null : SchemaDigest.managedNames(ctx), SchemaDigest.storageTables(ctx)));
+			if (!modelDigest.equals(dbDigest)) {
+				ctx.logger.accept("Database schema differs from model");
+				return false;
+			}
+			return true;
 		}
 		catch(SchemaUpdateException sue) {
 			throw sue;
@@ -51,48 +299,108 @@ public class SchemaGenerator {
 		}
 	}
 
-	private void initModelTables(Class<?>[] entityClasses) throws SchemaUpdateException {
-		ctx.modelSequenceNames = new HashSet<>();
+	void initModelTables(SyncContext ctx, Class<?>[] entityClasses) throws SchemaUpdateException {
+		ctx.modelSequences = new HashMap<>();
 		ctx.modelTables = new HashMap<>();
 		ctx.modelPrimaryKeys = new HashMap<>();
+		ctx.modelEnumTypes = new HashMap<>();
 		for(Class<?> clazz : entityClasses) {
-			EntityProperties eprop = db.getDialect().getProperties(clazz);
+			EntityProperties eprop = ctx.db.getDialect().getProperties(clazz);
 			TableDef table = new TableDef();
 			table.name = eprop.tableName;
 			table.columns = eprop.fields.stream()
 				.map(fprop -> {
-					ModelColumnDef c = new ModelColumnDef(eprop, fprop, dbAdapter);
-					if (c.sourceSequence != null)
-						ctx.modelSequenceNames.add(c.sourceSequence);
+					ModelColumnDef c = new ModelColumnDef(eprop, fprop, ctx.dbAdapter);
+					if (c.sequence != null)
+						initModelSequence(ctx, c);
+					if (nativeEnums && fprop.fieldType.isEnum() && !c.isJson && c.columnDefinitionOverride == null)
+						c.type = initModelEnumType(ctx, fprop.fieldType);
+					if (jsonb && c.isJson && c.columnDefinitionOverride == null)
+						c.type = ctx.dbAdapter.sqlTypeForBinaryJSon();
 					return c;
 				})
 				.peek(coldef -> table.columnOrder.add(coldef.name))
 				.collect(toMap(c -> c.name, c -> c));
+			table.partitioning = initModelPartitioning(clazz, table);
+			initModelStorage(clazz, table);
+			if (table.isUnlogged && table.partitioning != null)
+				throw new SchemaUpdateException("Partitioned table " + table.name + " cannot be unlogged");
 			ctx.modelTables.put(table.name, table);
 			if (eprop.idField != null)
-				ctx.modelPrimaryKeys.put(table.name, new PrimaryKeyDef(table.name, eprop.idField.columnName, null));
+				ctx.modelPrimaryKeys.put(table.name, new PrimaryKeyDef(table.name, getPrimaryKeyColumns(table), null));
+		}
+		initModelForeignKeys(ctx, entityClasses);
+		initModelUniques(ctx, entityClasses);
+		initModelChecks(ctx, entityClasses);
+		initModelIndexes(ctx, entityClasses);
+	}
+
+	private PartitionDef initModelPartitioning(Class<?> clazz, TableDef table) {
+		Partitioned partitioned = clazz.getAnnotation(Partitioned.class);
+		if (partitioned == null)
+			return null;
+		ColumnDef column = table.columns.get(partitioned.column());
+		if (column == null)
+			throw new SchemaUpdateException("Partition column " + partitioned.column() + " not found in table " + table.name);
+		column.isNullable = false;//partition column is part of primary key
+		PartitionDef pdef = new PartitionDef(partitioned.method().name(), column.name);
+		for(Partition partition : partitioned.partitions())
+			pdef.partitions.put(partition.name(), partition.bounds());
+		return pdef;
+	}
+
+	private void initModelStorage(Class<?> clazz, TableDef table) {
+		TableStorage storage = clazz.getAnnotation(TableStorage.class);
+		if (storage == null)
+			return;
+		table.isUnlogged = storage.unlogged();
+		table.tablespace = (storage.tablespace().trim().isEmpty() ? null : storage.tablespace().trim());
+		table.storageParameters = new TreeMap<>();
+		for(String parameter : storage.parameters()) {
+			int eq = parameter.indexOf('=');
+			if (eq < 0)
+				throw new SchemaUpdateException("Storage parameter " + parameter + " of " + clazz.getName() + " is not in form name=value");
+			table.storageParameters.put(parameter.substring(0, eq).trim().toLowerCase(), parameter.substring(eq + 1).trim());
 		}
-		initModelForeignKeys(entityClasses);
-		initModelUniques(entityClasses);
-		initModelChecks(entityClasses);
-		initModelIndexes(entityClasses);
 	}
 
-	private void initModelForeignKeys(Class<?>[] entityClasses) {
+	private void initModelSequence(SyncContext ctx, ModelColumnDef column) {
+		SequenceDef existing = ctx.modelSequences.putIfAbsent(column.sequence.name, column.sequence);
+		if (existing != null && !existing.hasSameParameters(column.sequence))
+			throw new SchemaUpdateException("Sequence " + existing.name + " is declared with different parameters");
+	}
+
+	/**
+	 * @return name of enumerated type for this enum
+	 */
+	private String initModelEnumType(SyncContext ctx, Class<?> enumClass) {
+		EnumTypeDef edef = new EnumTypeDef(ctx.dbAdapter.enumTypeName(enumClass), Arrays.stream(enumClass.getEnumConstants()).map(c -> c.toString()).collect(toList()));
+		EnumTypeDef existing = ctx.modelEnumTypes.putIfAbsent(edef.name, edef);
+		if (existing != null && !existing.values.equals(edef.values))
+			throw new SchemaUpdateException("Enums with different constants map to the same type " + edef.name);
+		return edef.name;
+	}
+
+	private void initModelForeignKeys(SyncContext ctx, Class<?>[] entityClasses) {
 		ctx.modelForeignKeys = new HashMap<>();
 		for(Class<?> clazz : entityClasses) {
-			EntityProperties eprops = db.getDialect().getProperties(clazz);
+			EntityProperties eprops = ctx.db.getDialect().getProperties(clazz);
 			eprops.fields.stream().forEach(f -> {
 				ModelColumnDef coldef = (ModelColumnDef) ctx.modelTables.get(eprops.tableName).columns.get(f.columnName);
 				if (coldef.isForeignKey) {
 					Class<?> targetClass = f.fieldType;
-					EntityProperties target = db.getDialect().getProperties(targetClass);
-					EntityProperties targetProps = db.getDialect().getProperties(targetClass);
+					EntityProperties target = ctx.db.getDialect().getProperties(targetClass);
+					EntityProperties targetProps = ctx.db.getDialect().getProperties(targetClass);
 					if (targetProps == null)
 						throw new SchemaUpdateException(f.field, ": @ManyToOne target class " + targetClass.getName() + " not registered with SchemaGenerator");
 					if (target.idField == null)
 						throw new SchemaUpdateException(f.field, ": @ManyToOne target class " + targetClass.getName() + " does not declare id-field");
 					coldef.type = ctx.modelTables.get(targetProps.tableName).columns.values().stream().filter(fcoldef -> fcoldef.isPrimaryKey()).map(fcoldef -> fcoldef.type).findAny().orElse(null);
+					PartitionDef targetPartitioning = ctx.modelTables.get(target.tableName).partitioning;
+					if (targetPartitioning != null && !targetPartitioning.column.equals(target.idField.columnName))//primary key includes partition column
+						throw new SchemaUpdateException(f.field, ": @ManyToOne target " + target.tableName + " is partitioned by " + targetPartitioning.column + ", so its id alone is not unique");
+					if (ctx.modelTables.get(target.tableName).isUnlogged && !ctx.modelTables.get(eprops.tableName).isUnlogged)
+						throw new SchemaUpdateException(f.field, ": logged table cannot refer to unlogged table " + target.tableName);
 					ForeignKeyDef fdef = new ForeignKeyDef(eprops.tableName, f.columnName, target.tableName, target.idField.columnName, null);
 					ctx.modelForeignKeys.put(fdef.localTable + "/" + fdef.localColumn, fdef);
 				}
@@ -100,10 +408,10 @@ public class SchemaGenerator {
 		}
 	}
 
-	private void initModelUniques(Class<?>[] entityClasses) {
+	private void initModelUniques(SyncContext ctx, Class<?>[] entityClasses) {
 		ctx.modelUniques = new HashMap<>();
 		for(Class<?> clazz : entityClasses) {
-			EntityProperties eprops = db.getDialect().getProperties(clazz);
+			EntityProperties eprops = ctx.db.getDialect().getProperties(clazz);
 			// Add fields with @Column(unique=true)
 			ctx.modelTables.get(eprops.tableName).columns.values().stream().map(coldef -> (ModelColumnDef) coldef).filter(coldef -> coldef.isUnique).forEach(coldef -> {
 				UniqueDef udef = new UniqueDef();
@@ -126,11 +434,13 @@ public class SchemaGenerator {
 		}
 	}
 
-	private void initModelChecks(Class<?>[] entityClasses) {
+	private void initModelChecks(SyncContext ctx, Class<?>[] entityClasses) {
 		ctx.modelChecks = new HashMap<>();
 		for(Class<?> clazz : entityClasses) {
-			EntityProperties eprop = db.getDialect().getProperties(clazz);
+			EntityProperties eprop = ctx.db.getDialect().getProperties(clazz);
 			eprop.fields.stream().filter(fprop -> fprop.fieldType.isEnum()).forEach(fprop -> {
+				if (ctx.modelEnumTypes.containsKey(ctx.modelTables.get(eprop.tableName).columns.get(fprop.columnName).type))
+					return;//native enumerated type needs no check
 				CheckDef cdef = new CheckDef(null, eprop.tableName, fprop.columnName);
 				cdef.validValues = Arrays.stream(fprop.fieldType.getEnumConstants()).map(c -> c.toString()).toArray(String[]::new);
 				ctx.modelChecks.put(cdef.toString(), cdef);
@@ -138,10 +448,10 @@ public class SchemaGenerator {
 		}
 	}
 
-	private void initModelIndexes(Class<?>[] entityClasses) {
+	private void initModelIndexes(SyncContext ctx, Class<?>[] entityClasses) {
 		ctx.modelIndexes = new HashMap<>();
 		for(Class<?> clazz : entityClasses) {
-			EntityProperties eprops = db.getDialect().getProperties(clazz);
+			EntityProperties eprops = ctx.db.getDialect().getProperties(clazz);
 			if (clazz.isAnnotationPresent(Indexes.class)) {
 				Index[] indexes = clazz.getAnnotation(Indexes.class).value();
 				if (indexes != null && indexes.length > 0)
@@ -149,144 +459,471 @@ public class SchemaGenerator {
 						if (index.value() != null && index.value().length > 0) {
 							IndexDef idef = new IndexDef();
 							idef.tableName = eprops.tableName;
-							idef.columns = index.value();
+							idef.setKeys(index.value());
+							idef.method = index.method().name().toLowerCase();
+							idef.operatorClass = (index.operatorClass().trim().isEmpty() ? null : index.operatorClass().trim());
+							idef.include = index.include();
+							idef.where = (index.where().trim().isEmpty() ? null : index.where());
+							idef.tablespace = (index.tablespace().trim().isEmpty() ? null : index.tablespace().trim());
 							ctx.modelIndexes.put(idef.toString(), idef);
 						}
 			}
 		}
 	}
 
-	private void loadCurrentSchema() throws Exception {
-		ctx.dbSequenceNames = dbAdapter.loadCurrentSequenceNames(db);
-		ctx.dbTables = dbAdapter.loadCurrentTables(db).stream().collect(toMap(def -> def.name, def -> def));
-		ctx.dbPrimaryKeys = dbAdapter.loadCurrentPrimaryKeys(db).stream().collect(toMap(pk -> pk.table, pk -> pk));
-		ctx.dbForeignKeys = dbAdapter.loadCurrentForeignKeys(db).stream().collect(toMap(fk -> fk.localTable + "/" + fk.localColumn, fk -> fk));
-		ctx.dbUniques = dbAdapter.loadCurrentUniques(db).stream().collect(toMap(u -> u.toString(), u -> u));
-		ctx.dbChecks = dbAdapter.loadCurrentChecks(db).stream().collect(toMap(u -> u.toString(), u -> u));
-		ctx.dbIndexes = dbAdapter.loadCurrentIndexes(db).stream().collect(toMap(u -> u.toString(), u -> u));
+	void loadCurrentSchema(SyncContext ctx) throws Exception {
+		ctx.changesPostponed = false;
+		if (catalogParallelism <= 1)
+			loadCurrentSchema(ctx, null, null);
+		else loadCurrentSchemaConcurrently(ctx);
+		canonicalizeModelIndexes(ctx, ctx.dbTables.keySet());
 	}
 
-	private void detectChanges(StringBuilder sb) {
-		detectNewSequences(sb);
-		detectNewTables(sb);
+	private void loadCurrentSchemaConcurrently(SyncContext ctx) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(catalogParallelism, 8));
+		try {
+			ctx.db.transaction((db, connection) -> {//exporting transaction is kept open until all catalog queries have imported its snapshot
+				String snapshotId;
+				try(Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(ctx.dbAdapter.exportSnapshot())) {
+					rs.next();
+					snapshotId = rs.getString(1);
+				}
+				loadCurrentSchema(ctx, executor, snapshotId);
+				return null;
+			});
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void loadCurrentSchema(SyncContext ctx, ExecutorService executor, String snapshotId) throws Exception {
+		// Catalog queries are independent of each other; with an executor, each one runs on its own connection, but sees the same snapshot
+		Future<Collection<SequenceDef>> sequences = catalogQuery(ctx, executor, snapshotId, "loadCurrentSequences", ctx.dbAdapter::loadCurrentSequences);
+		Future<Collection<TableDef>> tables = catalogQuery(ctx, executor, snapshotId, "loadCurrentTables", ctx.dbAdapter::loadCurrentTables);
+		Future<Collection<PrimaryKeyDef>> primaryKeys = catalogQuery(ctx, executor, snapshotId, "loadCurrentPrimaryKeys", ctx.dbAdapter::loadCurrentPrimaryKeys);
+		Future<Collection<ForeignKeyDef>> foreignKeys = catalogQuery(ctx, executor, snapshotId, "loadCurrentForeignKeys", ctx.dbAdapter::loadCurrentForeignKeys);
+		Future<Collection<UniqueDef>> uniques = catalogQuery(ctx, executor, snapshotId, "loadCurrentUniques", ctx.dbAdapter::loadCurrentUniques);
+		Future<Collection<CheckDef>> checks = catalogQuery(ctx, executor, snapshotId, "loadCurrentChecks", ctx.dbAdapter::loadCurrentChecks);
+		Future<Collection<IndexDef>> indexes = catalogQuery(ctx, executor, snapshotId, "loadCurrentIndexes", ctx.dbAdapter::loadCurrentIndexes);
+		Future<Collection<EnumTypeDef>> enumTypes = catalogQuery(ctx, executor, snapshotId, "loadCurrentEnumTypes", ctx.dbAdapter::loadCurrentEnumTypes);
+		ctx.dbSequences = await(sequences).stream().collect(toMap(s -> s.name, s -> s));
+		ctx.dbTables = await(tables).stream().collect(toMap(def -> def.name, def -> def));
+		ctx.dbPrimaryKeys = await(primaryKeys).stream().collect(toMap(pk -> pk.table, pk -> pk));
+		ctx.dbForeignKeys = await(foreignKeys).stream().collect(toMap(fk -> fk.localTable + "/" + fk.localColumn, fk -> fk));
+		ctx.dbUniques = await(uniques).stream().collect(toMap(u -> u.toString(), u -> u));
+		ctx.dbChecks = await(checks).stream().collect(toMap(u -> u.toString(), u -> u));
+		ctx.dbIndexes = await(indexes).stream().filter(i -> i.isValid).collect(toMap(u -> u.toString(), u -> u));
+		ctx.dbInvalidIndexes = await(indexes).stream().filter(i -> !i.isValid).collect(toList());
+		ctx.dbEnumTypes = await(enumTypes).stream().collect(toMap(t -> t.name, t -> t));
+	}
+
+	/**
+	 * Replace model indexes having expressions with their copies, whose keys and predicates are printed by database.
+	 * Indexes rejected by database keep declared expressions: they cannot exist yet, so they are created (or the creation fails).
+	 * Shared model indexes of syncSchemas are not modified
+	 * @param tables tables, whose indexes are canonicalized
+	 */
+	private void canonicalizeModelIndexes(SyncContext ctx, Set<String> tables) throws Exception {
+		Map<String, List<IndexDef>> declared = ctx.modelIndexes.values().stream().filter(i -> tables.contains(i.tableName) && i.hasExpressions()).collect(groupingBy(i -> i.tableName));
+		if (declared.isEmpty())
+			return;
+		Map<String, IndexDef> indexes = new HashMap<>(ctx.modelIndexes);
+		List<IndexDef> replacements = new ArrayList<>();
+		for(Map.Entry<String, List<IndexDef>> e : declared.entrySet()) {
+			List<IndexDef> printed;
+			try {
+				printed = catalogQuery("canonicalIndexes", ctx.db, db -> ctx.dbAdapter.canonicalIndexes(db, e.getKey(), e.getValue()));
+			}
+			catch(Exception ex) {//for example, temporary tables cannot be created on a standby
+				ctx.logger.accept("Indexes of " + e.getKey() + " are compared as declared: " + ex.getMessage());
+				continue;
+			}
+			for(int i = 0; i < printed.size(); i++)//empty, when table does not exist
+				if (printed.get(i) == null)
+					ctx.logger.accept("Index " + e.getValue().get(i) + " is rejected by current table, it is compared as declared");
+				else {
+					indexes.remove(e.getValue().get(i).toString());
+					replacements.add(printed.get(i));
+				}
+		}
+		replacements.forEach(i -> indexes.put(i.toString(), i));
+		ctx.modelIndexes = indexes;
+	}
+
+	private int catalogConnections() {
+		return (catalogParallelism > 1 ? Math.min(catalogParallelism, 8) + 1 : 1);//concurrent queries and the transaction exporting their snapshot
+	}
+
+	private <T> Future<T> catalogQuery(SyncContext ctx, ExecutorService executor, String snapshotId, String name, CatalogQuery<T> query) throws Exception {
+		if (executor == null)
+			return CompletableFuture.completedFuture(catalogQuery(name, ctx.db, query));
+		return executor.submit(() -> ctx.db.transaction((db, connection) -> {
+			try(Statement stmt = connection.createStatement()) {
+				for(String sql : ctx.dbAdapter.importSnapshot(snapshotId))
+					stmt.execute(sql);
+			}
+			return catalogQuery(name, db, query);
+		}));
+	}
+
+	private static <T> T await(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		}
+		catch(ExecutionException ee) {
+			throw (ee.getCause() instanceof Exception ? (Exception) ee.getCause() : ee);
+		}
+	}
+
+	private interface CatalogQuery<T> {
+		T load(Database db) throws Exception;
+	}
+
+	private <T> T catalogQuery(String name, Database db, CatalogQuery<T> query) throws Exception {
+		listeners.forEach(l -> l.catalogQueryStarted(name));
+		long start = System.nanoTime();
+		T result = query.load(db);
+		long nanos = System.nanoTime() - start;
+		listeners.forEach(l -> l.catalogQueryCompleted(name, nanos));
+		return result;
+	}
+
+	/**
+	 * @return start time of the phase
+	 */
+	private long phaseStarted(String phase) {
+		listeners.forEach(l -> l.phaseStarted(phase));
+		return System.nanoTime();
+	}
+
+	private void phaseCompleted(String phase, long startNanos) {
+		long nanos = System.nanoTime() - startNanos;
+		listeners.forEach(l -> l.phaseCompleted(phase, nanos));
+	}
+
+	/**
+	 * @param ctx sync context, with model and current schema loaded
+	 * @param statements DDL statements to be executed in main transaction
+	 * @param deferred statements to be executed one by one after main transaction has been committed
+	 * @param validations table->constraint validation statements, to be executed after deferred statements
+	 */
+	void detectChanges(SyncContext ctx, List<DdlStatement> statements, List<DdlStatement> deferred, Map<String, List<DdlStatement>> validations) {
+		detectRenamedSequences(ctx, statements);
+		detectNewSequences(ctx, statements);
+		detectChangedSequences(ctx, statements);
+		warnIgnoredAllocationSizes(ctx);
+		detectNewEnumTypes(ctx, statements);
+		detectChangedEnumTypes(ctx, deferred);//new values are not used by main transaction
+		detectNewTables(ctx, statements);
 		ctx.modelTables.values().stream().filter(table -> ctx.dbTables.containsKey(table.name)).forEach(table -> {
-			detectNewColumns(table, sb);
-			detectChangedColumns(table, sb);
-			if (dropUnused) detectRemovedColumns(table, sb);
+			detectNewPartitions(ctx, table, statements);
+			detectChangedStorage(ctx, table, statements);
+			detectNewColumns(ctx, table, statements);
+			detectChangedColumns(ctx, table, statements, deferred);
+			if (dropUnused) detectRemovedColumns(ctx, table, statements);
 		});
-		detectNewPrimaryKeys(sb);
-		detectRemovedPrimaryKeys(sb);
-		detectNewForeignKeys(sb);
-		detectRemovedForeignKeys(sb);
-		detectNewUniques(sb);
-		detectRemovedUniques(sb);
-		detectNewChecks(sb);
-		detectRemovedChecks(sb);
-		detectNewIndexes(sb);
-		detectRemovedIndexes(sb);
-		if (dropUnused) detectRemovedTables(sb);
-		if (dropUnused) detectRemovedSequences(sb);
-	}
-
-	private void detectNewForeignKeys(StringBuilder sb) {
+		detectNewPrimaryKeys(ctx, statements);
+		detectRemovedPrimaryKeys(ctx, statements);
+		detectNewForeignKeys(ctx, statements, validations);
+		detectUnvalidatedConstraints(ctx, validations);
+		detectRemovedForeignKeys(ctx, statements);
+		if (concurrentIndexes) detectInvalidIndexes(ctx, deferred);//leftovers of failed concurrent builds are dropped before rebuilding
+		detectNewUniques(ctx, statements, deferred);
+		detectRemovedUniques(ctx, statements);
+		detectRemovedChecks(ctx, statements);//old check is dropped first, since new check with changed values may get the same name
+		detectNewChecks(ctx, statements, validations);
+		detectNewIndexes(ctx, statements, deferred);
+		detectMovedIndexes(ctx, statements);
+		detectRemovedIndexes(ctx, statements, deferred);
+		if (dropUnused) detectRemovedTables(ctx, statements);
+		if (dropUnused) detectRemovedSequences(ctx, statements);
+		if (dropUnused && nativeEnums) detectRemovedEnumTypes(ctx, statements);
+	}
+
+	private void detectNewForeignKeys(SyncContext ctx, List<DdlStatement> statements, Map<String, List<DdlStatement>> validations) {
 		ctx.modelForeignKeys.keySet().stream().
 			filter(mfname -> !ctx.dbForeignKeys.containsKey(mfname)).
 			map(mfname -> ctx.modelForeignKeys.get(mfname)).
-			forEach(mfk -> sb.append(dbAdapter.createForeignKey(mfk)));
+			forEach(mfk -> {
+				if (notValidConstraints && ctx.dbTables.containsKey(mfk.localTable)) {
+					statements.add(new DdlStatement(ADD_FOREIGN_KEY, mfk.localTable, ctx.dbAdapter.createForeignKeyNotValid(mfk), false, mfk.foreignTable));
+					validations.computeIfAbsent(mfk.localTable, t -> new ArrayList<>()).add(new DdlStatement(VALIDATE_CONSTRAINT, mfk.localTable, ctx.dbAdapter.validateForeignKey(mfk)));
+				}
+				else statements.add(new DdlStatement(ADD_FOREIGN_KEY, mfk.localTable, ctx.dbAdapter.createForeignKey(mfk), false, mfk.foreignTable));
+			});
+	}
+
+	/**
+	 * Constraints, which remained NOT VALID after a failed validation, are validated again
+	 */
+	private void detectUnvalidatedConstraints(SyncContext ctx, Map<String, List<DdlStatement>> validations) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.dbForeignKeys.entrySet().stream().
+			filter(e -> !e.getValue().isValidated && ctx.modelForeignKeys.containsKey(e.getKey())).
+			map(e -> e.getValue()).
+			peek(fk -> messageElements.add(fk.constraintName)).
+			forEach(fk -> validations.computeIfAbsent(fk.localTable, t -> new ArrayList<>()).add(new DdlStatement(VALIDATE_CONSTRAINT, fk.localTable, ctx.dbAdapter.validateForeignKey(fk))));
+		ctx.dbChecks.entrySet().stream().
+			filter(e -> !e.getValue().isValidated && ctx.modelChecks.containsKey(e.getKey())).
+			map(e -> e.getValue()).
+			peek(c -> messageElements.add(c.name)).
+			forEach(c -> validations.computeIfAbsent(c.tableName, t -> new ArrayList<>()).add(new DdlStatement(VALIDATE_CONSTRAINT, c.tableName, ctx.dbAdapter.validateCheck(c))));
+		logElementsMessage(ctx, "Validating constraints again ", messageElements);
 	}
 
-	private void detectRemovedForeignKeys(StringBuilder sb) {
+	private void detectRemovedForeignKeys(SyncContext ctx, List<DdlStatement> statements) {
 		ctx.dbForeignKeys.keySet().stream().
 			filter(dbfname -> !ctx.modelForeignKeys.containsKey(dbfname)).
 			map(dbfname -> ctx.dbForeignKeys.get(dbfname)).
-			forEach(dbf -> sb.append(dbAdapter.dropForeignKey(dbf.localTable, dbf.localColumn, dbf.constraintName)));
+			forEach(dbf -> statements.add(new DdlStatement(DROP_FOREIGN_KEY, dbf.localTable, ctx.dbAdapter.dropForeignKey(dbf.localTable, dbf.localColumn, dbf.constraintName), false, dbf.foreignTable)));
 	}
 
-	private void detectNewUniques(StringBuilder sb) {
+	private void detectNewUniques(SyncContext ctx, List<DdlStatement> statements, List<DdlStatement> deferred) {
 		ctx.modelUniques.keySet().stream().
 			filter(uname -> !ctx.dbUniques.containsKey(uname)).
 			map(uname -> ctx.modelUniques.get(uname)).
-			forEach(udef -> sb.append(dbAdapter.createUnique(udef)));
+			forEach(udef -> {
+				if (concurrentIndexes && isExistingPlainTable(ctx, udef.tableName)) {
+					List<String> sqls = ctx.dbAdapter.createUniqueConcurrently(udef);
+					deferred.add(new DdlStatement(CREATE_INDEX, udef.tableName, sqls.get(0)));
+					deferred.add(new DdlStatement(ADD_UNIQUE, udef.tableName, sqls.get(1)));
+				}
+				else statements.add(new DdlStatement(ADD_UNIQUE, udef.tableName, ctx.dbAdapter.createUnique(udef)));
+			});
 	}
 
-	private void detectRemovedUniques(StringBuilder sb) {
+	private void detectRemovedUniques(SyncContext ctx, List<DdlStatement> statements) {
 		ctx.dbUniques.keySet().stream().
 			filter(uname -> !ctx.modelUniques.containsKey(uname)).
 			map(uname -> ctx.dbUniques.get(uname)).
-			forEach(uudef -> sb.append(dbAdapter.dropUnique(uudef)));
+			forEach(uudef -> statements.add(new DdlStatement(DROP_UNIQUE, uudef.tableName, ctx.dbAdapter.dropUnique(uudef))));//backing index is dropped together with constraint, including indexes attached with USING INDEX
 	}
 
-	private void detectNewChecks(StringBuilder sb) {
+	private void detectNewChecks(SyncContext ctx, List<DdlStatement> statements, Map<String, List<DdlStatement>> validations) {
 		ctx.modelChecks.keySet().stream().
 			filter(cname -> !ctx.dbChecks.containsKey(cname)).
 			map(cname -> ctx.modelChecks.get(cname)).
-			forEach(cdef -> sb.append(dbAdapter.createCheck(cdef)));
+			forEach(cdef -> {
+				if (notValidConstraints && ctx.dbTables.containsKey(cdef.tableName)) {
+					statements.add(new DdlStatement(ADD_CHECK, cdef.tableName, ctx.dbAdapter.createCheckNotValid(cdef)));
+					validations.computeIfAbsent(cdef.tableName, t -> new ArrayList<>()).add(new DdlStatement(VALIDATE_CONSTRAINT, cdef.tableName, ctx.dbAdapter.validateCheck(cdef)));
+				}
+				else statements.add(new DdlStatement(ADD_CHECK, cdef.tableName, ctx.dbAdapter.createCheck(cdef)));
+			});
 	}
 
-	private void detectRemovedChecks(StringBuilder sb) {
+	private void detectRemovedChecks(SyncContext ctx, List<DdlStatement> statements) {
 		ctx.dbChecks.keySet().stream().
 			filter(cname -> !ctx.modelChecks.containsKey(cname)).
 			map(cname -> ctx.dbChecks.get(cname)).
-			forEach(cdef -> sb.append(dbAdapter.dropCheck(cdef)));
+			forEach(cdef -> statements.add(new DdlStatement(DROP_CHECK, cdef.tableName, ctx.dbAdapter.dropCheck(cdef))));
 	}
 
-	private void detectNewIndexes(StringBuilder sb) {
+	private void detectInvalidIndexes(SyncContext ctx, List<DdlStatement> deferred) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.dbInvalidIndexes.stream().
+			peek(idef -> messageElements.add(idef.name)).
+			forEach(idef -> deferred.add(new DdlStatement(DROP_INDEX, idef.tableName, ctx.dbAdapter.dropIndexConcurrently(idef))));
+		logElementsMessage(ctx, "Removed invalid indexes ", messageElements);
+	}
+
+	private void detectNewIndexes(SyncContext ctx, List<DdlStatement> statements, List<DdlStatement> deferred) {
 		ctx.modelIndexes.keySet().stream().
 			filter(iname -> !ctx.dbIndexes.containsKey(iname)).
 			map(iname -> ctx.modelIndexes.get(iname)).
-			forEach(idef -> sb.append(dbAdapter.createIndex(idef)));
+			forEach(idef -> {
+				if (concurrentIndexes && isExistingPlainTable(ctx, idef.tableName))
+					deferred.add(new DdlStatement(CREATE_INDEX, idef.tableName, ctx.dbAdapter.createIndexConcurrently(idef)));
+				else statements.add(new DdlStatement(CREATE_INDEX, idef.tableName, ctx.dbAdapter.createIndex(idef)));//new tables are empty and not yet visible to others, no need for concurrent build
+			});
+	}
+
+	private void detectMovedIndexes(SyncContext ctx, List<DdlStatement> statements) {
+		ctx.modelIndexes.keySet().stream().
+			filter(iname -> ctx.dbIndexes.containsKey(iname)).
+			map(iname -> ctx.modelIndexes.get(iname)).
+			filter(idef -> idef.tablespace != null && !idef.tablespace.equals(ctx.dbIndexes.get(idef.toString()).tablespace)).
+			forEach(idef -> statements.add(new DdlStatement(ALTER_INDEX_TABLESPACE, idef.tableName, ctx.dbAdapter.alterIndexTablespace(ctx.dbIndexes.get(idef.toString()), idef.tablespace))));
 	}
 
-	private void detectRemovedIndexes(StringBuilder sb) {
+	private void detectRemovedIndexes(SyncContext ctx, List<DdlStatement> statements, List<DdlStatement> deferred) {
 		ctx.dbIndexes.keySet().stream().
 			filter(iname -> !ctx.modelIndexes.containsKey(iname)).
 			map(iname -> ctx.dbIndexes.get(iname)).
-			forEach(idef -> sb.append(dbAdapter.dropIndex(idef)));
+			forEach(idef -> {
+				if (concurrentIndexes && isExistingPlainTable(ctx, idef.tableName))
+					deferred.add(new DdlStatement(DROP_INDEX, idef.tableName, ctx.dbAdapter.dropIndexConcurrently(idef)));
+				else statements.add(new DdlStatement(DROP_INDEX, idef.tableName, ctx.dbAdapter.dropIndex(idef)));
+			});
+	}
+
+	/**
+	 * @return true, if table exists and is not partitioned; indexes of partitioned tables cannot be built or dropped concurrently
+	 */
+	private boolean isExistingPlainTable(SyncContext ctx, String tableName) {
+		TableDef table = ctx.dbTables.get(tableName);
+		return table != null && table.partitioning == null;
 	}
 
-	private void detectRemovedPrimaryKeys(StringBuilder sb) {
+	private void detectRemovedPrimaryKeys(SyncContext ctx, List<DdlStatement> statements) {
 		for(PrimaryKeyDef pk : ctx.dbPrimaryKeys.values()) {
 			TableDef table = ctx.modelTables.get(pk.table);
 			if (table == null)
 				continue;//a table was dropped: pk will be implicitly cascade-dropped
-			if (!table.columns.containsKey(pk.column))
+			if (!Arrays.stream(pk.column.split(",")).allMatch(table.columns::containsKey))
 				continue;//pk column was removed; pk will be implicitly cascade-dropped
-			if (table.columns.get(pk.column).isPrimaryKey())
-				continue;//column is still primary key; don' drop the constraint
-			sb.append(dbAdapter.dropPrimaryKey(pk.table, pk.column, pk.constraintName));
+			if (pk.column.equals(getPrimaryKeyColumns(table)))
+				continue;//columns are still primary key; don' drop the constraint
+			statements.add(new DdlStatement(DROP_PRIMARY_KEY, pk.table, ctx.dbAdapter.dropPrimaryKey(pk.table, pk.column, pk.constraintName)));
 		}
 	}
 
-	private String getPrimaryKeyColumn(TableDef table) {
-		return table.columns.values().stream().filter(c -> c.isPrimaryKey()).map(c -> c.name).findAny().orElse(null);
+	/**
+	 * @return primary key column, followed by partition column for partitioned tables; null, if table has no primary key
+	 */
+	private String getPrimaryKeyColumns(TableDef table) {
+		String pkColumn = table.columns.values().stream().filter(c -> c.isPrimaryKey()).map(c -> c.name).findAny().orElse(null);
+		if (pkColumn == null || table.partitioning == null || pkColumn.equals(table.partitioning.column))
+			return pkColumn;
+		return pkColumn + "," + table.partitioning.column;
 	}
 
-	private void detectNewSequences(StringBuilder sb) {
-		ctx.modelSequenceNames.stream().
-			filter(s -> !ctx.dbSequenceNames.contains(s)).
-			peek(s -> messageElements.add(s)).
-			forEach(s -> sb.append(dbAdapter.createSequence(s)));
-		logElementsMessage("Added sequences ");
+	/**
+	 * When the model declares a different sequence for an existing column and the previous sequence is no longer used by the model,
+	 * the previous sequence is renamed, so that column values continue from it
+	 */
+	private void detectRenamedSequences(SyncContext ctx, List<DdlStatement> statements) {
+		Map<String, String> renamed = new HashMap<>();
+		for(TableDef table : ctx.modelTables.values()) {
+			TableDef dbTable = ctx.dbTables.get(table.name);
+			if (dbTable == null)
+				continue;
+			for(ColumnDef col : table.columns.values()) {
+				ColumnDef dbCol = dbTable.columns.get(col.name);
+				if (col.sourceSequence == null || dbCol == null || dbCol.sourceSequence == null || col.sourceSequence.equals(dbCol.sourceSequence))
+					continue;
+				String previous = dbCol.sourceSequence;
+				if (ctx.dbSequences.containsKey(previous) && !ctx.dbSequences.containsKey(col.sourceSequence) && !ctx.modelSequences.containsKey(previous)) {
+					SequenceDef seq = ctx.dbSequences.remove(previous);
+					seq.name = col.sourceSequence;
+					ctx.dbSequences.put(seq.name, seq);
+					statements.add(new DdlStatement(ALTER_SEQUENCE, null, ctx.dbAdapter.renameSequence(previous, seq.name)));
+					renamed.put(previous, seq.name);
+				}
+				if (col.sourceSequence.equals(renamed.get(previous)))
+					dbCol.sourceSequence = col.sourceSequence;//column default refers to the renamed sequence
+			}
+		}
+		logElementsMessage(ctx, "Renamed sequences ", renamed.entrySet().stream().map(e -> e.getKey() + "->" + e.getValue()).collect(toList()));
 	}
 
-	private void detectNewTables(StringBuilder sb) {
+	private void detectNewSequences(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.modelSequences.values().stream().
+			filter(s -> !ctx.dbSequences.containsKey(s.name)).
+			peek(s -> messageElements.add(s.name)).
+			forEach(s -> statements.add(new DdlStatement(CREATE_SEQUENCE, null, ctx.dbAdapter.createSequence(s))));
+		logElementsMessage(ctx, "Added sequences ", messageElements);
+	}
+
+	private void detectChangedSequences(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.modelSequences.values().stream().
+			filter(s -> ctx.dbSequences.containsKey(s.name) && !s.hasSameParameters(ctx.dbSequences.get(s.name))).
+			peek(s -> messageElements.add(s.name)).
+			forEach(s -> statements.add(new DdlStatement(ALTER_SEQUENCE, null, ctx.dbAdapter.alterSequence(s))));
+		logElementsMessage(ctx, "Changed sequences ", messageElements);
+	}
+
+	/**
+	 * JPA providers with pooled id allocation (for example, Hibernate) assume that sequence increment equals allocationSize
+	 */
+	private void warnIgnoredAllocationSizes(SyncContext ctx) {
+		ctx.modelSequences.values().stream().filter(s -> s.allocationSizeIgnored).forEach(s -> ctx.logger.accept("Warning: sequence " + s.name + " has increment " + s.increment +
+				", but allocationSize of its @SequenceGenerator is 50" + (ctx.dbSequences.containsKey(s.name) ? " (current increment " + ctx.dbSequences.get(s.name).increment + ")" : "") +
+				"; use @Sequence(increment = 50), if ids are allocated in blocks of 50, or allocationSize = 1 otherwise"));
+	}
+
+	private void detectNewEnumTypes(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.modelEnumTypes.values().stream().
+			filter(t -> !ctx.dbEnumTypes.containsKey(t.name)).
+			peek(t -> messageElements.add(t.name)).
+			forEach(t -> statements.add(new DdlStatement(CREATE_TYPE, null, ctx.dbAdapter.createEnumType(t))));
+		logElementsMessage(ctx, "Added enum types ", messageElements);
+	}
+
+	private void detectChangedEnumTypes(SyncContext ctx, List<DdlStatement> deferred) {
+		ctx.modelEnumTypes.values().stream().filter(t -> ctx.dbEnumTypes.containsKey(t.name)).forEach(type -> {
+			List<String> existing = ctx.dbEnumTypes.get(type.name).values;
+			for(int i = 0; i < type.values.size(); i++)
+				if (!existing.contains(type.values.get(i))) {//new values are placed according to constant order
+					String before = (i == 0 && !existing.isEmpty() ? existing.get(0) : null);
+					String after = (i > 0 ? type.values.get(i - 1) : null);
+					deferred.add(new DdlStatement(ALTER_TYPE, null, ctx.dbAdapter.addEnumValue(type.name, type.values.get(i), before, after)));
+				}
+			List<String> removed = existing.stream().filter(v -> !type.values.contains(v)).collect(toList());
+			logElementsMessage(ctx, "Enum type " + type.name + " keeps removed values ", removed);//values cannot be removed from enumerated type
+		});
+	}
+
+	private void detectNewTables(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
 		ctx.modelTables.values().stream().
 			filter(table -> !ctx.dbTables.containsKey(table.name)).
 			peek(table -> messageElements.add(table.name)).
-			forEach(table -> sb.append(dbAdapter.createTableWithColumns(table)));
-		logElementsMessage("Added tables ");
+			forEach(table -> {
+				statements.add(new DdlStatement(CREATE_TABLE, table.name, ctx.dbAdapter.createTableWithColumns(table)));
+				if (table.partitioning != null)
+					table.partitioning.partitions.forEach((name, bounds) -> statements.add(new DdlStatement(CREATE_PARTITION, table.name, ctx.dbAdapter.createPartition(table.name, name, bounds))));
+			});
+		logElementsMessage(ctx, "Added tables ", messageElements);
+	}
+
+	private void detectNewPartitions(SyncContext ctx, TableDef newTable, List<DdlStatement> statements) {
+		PartitionDef existing = ctx.dbTables.get(newTable.name).partitioning;
+		if (newTable.partitioning == null && existing == null)
+			return;
+		if (newTable.partitioning == null || !newTable.partitioning.hasSameKey(existing))//rows would have to be moved into a new table
+			throw new SchemaUpdateException("Cannot change partitioning of table " + newTable.name + " from " + (existing == null ? "none" : existing) + " to " + (newTable.partitioning == null ? "none" : newTable.partitioning));
+		List<String> messageElements = new ArrayList<>();
+		newTable.partitioning.partitions.keySet().stream().
+			filter(name -> !existing.partitions.containsKey(name)).
+			peek(name -> messageElements.add(name)).
+			forEach(name -> statements.add(new DdlStatement(CREATE_PARTITION, newTable.name, ctx.dbAdapter.createPartition(newTable.name, name, newTable.partitioning.partitions.get(name)))));
+		logElementsMessage(ctx, "Added " + newTable.name + " partitions ", messageElements);//partitions not declared in model are kept
+	}
+
+	private void detectChangedStorage(SyncContext ctx, TableDef newTable, List<DdlStatement> statements) {
+		TableDef dbTable = ctx.dbTables.get(newTable.name);
+		if (newTable.storageParameters == null)
+			return;//tables without @TableStorage keep their persistence, tablespace and storage parameters
+		if (newTable.isUnlogged != dbTable.isUnlogged)
+			addRewrite(ctx, dbTable, "Changing persistence of table " + newTable.name, statements,
+					new DdlStatement(ALTER_TABLE_PERSISTENCE, newTable.name, ctx.dbAdapter.alterPersistence(newTable.name, newTable.isUnlogged), true));
+		if (newTable.tablespace != null && !newTable.tablespace.equals(dbTable.tablespace))
+			addRewrite(ctx, dbTable, "Moving table " + newTable.name + " to tablespace " + newTable.tablespace, statements,
+					new DdlStatement(ALTER_TABLE_TABLESPACE, newTable.name, ctx.dbAdapter.alterTableTablespace(newTable.name, newTable.tablespace), true));
+		Map<String, String> existing = dbTable.storageParameters;
+		Map<String, String> set = new TreeMap<>(newTable.storageParameters);
+		set.entrySet().removeIf(e -> e.getValue().equals(existing.get(e.getKey())));
+		List<String> reset = existing.keySet().stream().filter(name -> !newTable.storageParameters.containsKey(name)).collect(toList());
+		if (!set.isEmpty() || !reset.isEmpty())
+			statements.add(new DdlStatement(ALTER_TABLE_STORAGE, newTable.name, ctx.dbAdapter.alterStorageParameters(newTable.name, set, reset)));
 	}
 
-	private void detectNewColumns(TableDef newTable, StringBuilder sb) {
+	private void detectNewColumns(SyncContext ctx, TableDef newTable, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
 		Map<String, ColumnDef> existingCols = ctx.dbTables.get(newTable.name).columns;
 		newTable.columnOrder.stream().map(cname -> newTable.columns.get(cname)).
 			filter(col -> !existingCols.containsKey(col.name)).
 			peek(col -> messageElements.add(col.name)).
-			forEach(col -> sb.append(dbAdapter.addColumn(newTable.name, col)));
-		logElementsMessage("Added " + newTable.name + " columns ");
+			forEach(col -> statements.add(new DdlStatement(ADD_COLUMN, newTable.name, ctx.dbAdapter.addColumn(newTable.name, col), col.sourceSequence != null || col.identity != null)));//volatile default is evaluated for every existing row
+		logElementsMessage(ctx, "Added " + newTable.name + " columns ", messageElements);
 	}
 
-	private void detectChangedColumns(TableDef newTable, StringBuilder sb) {
+	private void detectChangedColumns(SyncContext ctx, TableDef newTable, List<DdlStatement> statements, List<DdlStatement> deferred) {
 		Map<String, ColumnDef> existingCols = ctx.dbTables.get(newTable.name).columns;
 		newTable.columns.values().stream().
 			filter(col -> existingCols.containsKey(col.name)).
@@ -294,67 +931,630 @@ public class SchemaGenerator {
 			forEach(col -> {
 				ColumnDef col2 = existingCols.get(col.name);
 				if (!Objects.equals(col.type, col2.type))
-					sb.append(dbAdapter.alterColumnType(newTable.name, col.name, col.type));
-				if (col.isNullable != col2.isNullable)
-					sb.append(dbAdapter.alterColumnNullability(newTable.name, col.name, col.isNullable));
+					detectChangedType(ctx, newTable.name, col, col2, statements);
+				if (col.isNullable != col2.isNullable) {
+					if (onlineNotNull && !col.isNullable && col.identity == null)//identity needs NOT NULL in main transaction
+						ctx.dbAdapter.setNotNullOnline(newTable.name, col.name).forEach(sql -> deferred.add(new DdlStatement(ALTER_COLUMN_NULLABILITY, newTable.name, sql)));
+					else statements.add(new DdlStatement(ALTER_COLUMN_NULLABILITY, newTable.name, ctx.dbAdapter.alterColumnNullability(newTable.name, col.name, col.isNullable)));
+				}
+				if (col.identity == null && col2.identity != null)//identity is dropped before sequence default is set
+					ctx.dbAdapter.dropIdentity(newTable.name, col.name, col.sourceSequence).forEach(sql -> statements.add(new DdlStatement(ALTER_COLUMN_IDENTITY, newTable.name, sql)));
 				if (!Objects.equals(col.sourceSequence, col2.sourceSequence))
-					sb.append(dbAdapter.alterColumnDefaultValue(newTable.name, col.name, col.sourceSequence));
+					statements.add(new DdlStatement(ALTER_COLUMN_DEFAULT, newTable.name, ctx.dbAdapter.alterColumnDefaultValue(newTable.name, col.name, col.sourceSequence)));
+				if (col.identity != null && col2.identity == null)//sequence default is dropped before identity is added
+					ctx.dbAdapter.addIdentity(newTable.name, col.name, col.identity, col2.sourceSequence).forEach(sql -> statements.add(new DdlStatement(ALTER_COLUMN_IDENTITY, newTable.name, sql)));
+				else if (col.identity != null && !col.identity.hasSameParameters(col2.identity))
+					statements.add(new DdlStatement(ALTER_COLUMN_IDENTITY, newTable.name, ctx.dbAdapter.alterIdentity(newTable.name, col.name, col.identity)));
 			});
 	}
 
-	private void detectRemovedColumns(TableDef newTable, StringBuilder sb) {
+	private void detectChangedType(SyncContext ctx, String tableName, ColumnDef col, ColumnDef col2, List<DdlStatement> statements) {
+		TableDef table = ctx.dbTables.get(tableName);
+		String ref = tableName + "." + col.name + " from " + col2.type + " to " + col.type;
+		TypeChange change = ctx.dbAdapter.classifyTypeChange(col2.type, col.type);
+		switch(change) {
+		case NOT_CASTABLE:
+			throw new SchemaUpdateException("Cannot convert column " + ref);
+		case REWRITE:
+			addRewrite(ctx, table, "Changing column " + ref, statements, new DdlStatement(ALTER_COLUMN_TYPE, tableName, ctx.dbAdapter.alterColumnType(tableName, col.name, col2.type, col.type), true));
+			break;
+		default:
+			statements.add(new DdlStatement(ALTER_COLUMN_TYPE, tableName, ctx.dbAdapter.alterColumnType(tableName, col.name, col2.type, col.type)));
+		}
+	}
+
+	/**
+	 * Add statement, which rewrites the table, if table is small enough to be rewritten; otherwise defer it.
+	 * A plan gets the statement in any case, see ctx.oversizedRewrites
+	 * @param table database table to be rewritten
+	 * @param change description of the change
+	 * @throws SchemaUpdateException when table exceeds maxRewritePages and large rewrites are not deferred
+	 */
+	private void addRewrite(SyncContext ctx, TableDef table, String change, List<DdlStatement> statements, DdlStatement statement) {
+		if (table.pages > maxRewritePages) {
+			if (ctx.dryRun) {
+				ctx.oversizedRewrites.add(statement);
+				statements.add(statement);
+				return;
+			}
+			String message = change + " rewrites table of " + table.pages + " pages (~" + table.estimatedRows + " rows)";
+			if (!deferLargeRewrites)
+				throw new SchemaUpdateException(message);
+			ctx.logger.accept(message + ", deferred");
+			ctx.changesPostponed = true;
+			return;
+		}
+		statements.add(statement);
+	}
+
+	private void detectRemovedColumns(SyncContext ctx, TableDef newTable, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
 		ctx.dbTables.get(newTable.name).columns.keySet().stream().
 			filter(col -> !newTable.columns.containsKey(col)).
 			peek(col -> messageElements.add(col)).
-			forEach(col -> sb.append(dbAdapter.dropColumn(newTable.name, col)));
-		logElementsMessage("Removed " + newTable.name + " columns ");
+			forEach(col -> statements.add(new DdlStatement(DROP_COLUMN, newTable.name, ctx.dbAdapter.dropColumn(newTable.name, col))));
+		logElementsMessage(ctx, "Removed " + newTable.name + " columns ", messageElements);
 	}
 
-	private void detectNewPrimaryKeys(StringBuilder sb) {
+	private void detectNewPrimaryKeys(SyncContext ctx, List<DdlStatement> statements) {
 		ctx.modelTables.values().stream().forEach(table -> {
-			String pkColumn = getPrimaryKeyColumn(table);
+			String pkColumn = getPrimaryKeyColumns(table);
 			if (pkColumn != null) {
 				PrimaryKeyDef existingKey = ctx.dbPrimaryKeys.get(table.name);
 				if (existingKey == null || !Objects.equals(existingKey.column, pkColumn))
-					sb.append(dbAdapter.addPrimaryKey(table.name, pkColumn));
+					statements.add(new DdlStatement(ADD_PRIMARY_KEY, table.name, ctx.dbAdapter.addPrimaryKey(table.name, pkColumn)));
 			}
 		});
 	}
 
-	private void detectRemovedTables(StringBuilder sb) {
+	private void detectRemovedTables(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
 		ctx.dbTables.keySet().stream().
 			filter(table -> !ctx.modelTables.containsKey(table)).
 			peek(table -> messageElements.add(table)).
-			forEach(table -> sb.append(dbAdapter.dropTable(table)));
-		logElementsMessage("Removed tables ");
+			forEach(table -> statements.add(new DdlStatement(DROP_TABLE, table, ctx.dbAdapter.dropTable(table))));
+		logElementsMessage(ctx, "Removed tables ", messageElements);
 	}
 
-	private void detectRemovedSequences(StringBuilder sb) {
-		ctx.dbSequenceNames.stream().
-			filter(seq -> !ctx.modelSequenceNames.contains(seq)).
+	private void detectRemovedSequences(SyncContext ctx, List<DdlStatement> statements) {
+		List<String> messageElements = new ArrayList<>();
+		ctx.dbSequences.keySet().stream().
+			filter(seq -> !ctx.modelSequences.containsKey(seq)).
 			peek(seq -> messageElements.add(seq)).
-			forEach(seq -> sb.append(dbAdapter.dropSequence(seq)));
-		logElementsMessage("Removed sequences ");
+			forEach(seq -> statements.add(new DdlStatement(DROP_SEQUENCE, null, ctx.dbAdapter.dropSequence(seq).toString())));
+		logElementsMessage(ctx, "Removed sequences ", messageElements);
+	}
+
+	private void detectRemovedEnumTypes(SyncContext ctx, List<DdlStatement> statements) {
+		Set<String> typesInUse = new HashSet<>();//types of manually defined columns
+		ctx.modelTables.values().stream().filter(t -> ctx.dbTables.containsKey(t.name)).forEach(t -> t.columns.values().stream().
+				filter(c -> c.columnDefinitionOverride != null && ctx.dbTables.get(t.name).columns.containsKey(c.name)).
+				forEach(c -> typesInUse.add(ctx.dbTables.get(t.name).columns.get(c.name).type)));
+		List<String> messageElements = new ArrayList<>();
+		List<String> keptTypes = new ArrayList<>();
+		for(EnumTypeDef type : ctx.dbEnumTypes.values())
+			if (ctx.modelEnumTypes.containsKey(type.name) || typesInUse.contains(type.name))
+				continue;
+			else if (type.hasOtherDependents)
+				keptTypes.add(type.name);//columns of the schema are dropped or converted by this sync, but other users of the type are not
+			else {
+				messageElements.add(type.name);
+				statements.add(new DdlStatement(DROP_TYPE, null, ctx.dbAdapter.dropEnumType(type.name)));
+			}
+		logElementsMessage(ctx, "Removed enum types ", messageElements);
+		logElementsMessage(ctx, "Kept enum types used by other objects ", keptTypes);
+	}
+
+	private void logElementsMessage(SyncContext ctx, String messagePrefix, List<String> messageElements) {
+		if (messageElements.isEmpty() || ctx.dryRun)
+			return;//plan reports changes in its entries, not as applied changes
+		ctx.logger.accept(messagePrefix + messageElements.stream().collect(joining(", ")));
+	}
+
+	/**
+	 * Execute statements one by one in a single transaction, or concurrently in separate transactions when ddlParallelism is above 1
+	 * @param ctx sync context
+	 * @param statements statements of main transaction
+	 * @throws Exception when any statement fails
+	 */
+	protected void applyChanges(SyncContext ctx, List<DdlStatement> statements) throws Exception {
+		if (statements.isEmpty())
+			return;
+		if (ddlParallelism > 1) {
+			applyConcurrently(ctx, statements);
+			return;
+		}
+		executeInTransaction(ctx, statements);
+	}
+
+	private void executeInTransaction(SyncContext ctx, List<DdlStatement> statements) throws Exception {
+		withLockRetry(ctx, events -> ctx.db.transaction((db, connection) -> {//on lock timeout, whole transaction is rolled back and retried
+			try(Statement stmt = connection.createStatement()) {
+				if (lockTimeout > 0)
+					stmt.execute(ctx.dbAdapter.setLockTimeout(lockTimeout, true));
+				for(String sql : ctx.dbAdapter.setMaintenanceSettings(maintenanceWorkMem, maintenanceWorkers, true))
+					stmt.execute(sql);
+				for(DdlStatement ddl : statements)
+					executeStatement(ctx, stmt, ddl, events);
+			}
+			return null;
+		}));
+	}
+
+	private void storeFingerprint(SyncContext ctx, String fingerprint) throws Exception {
+		ctx.db.transaction((db, connection) -> {
+			try(Statement stmt = connection.createStatement()) {
+				stmt.executeUpdate(ctx.dbAdapter.storeModelFingerprint(fingerprint));
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Execute each deferred statement separately, outside of transaction block. Index builds are executed last, see buildIndexes
+	 * @param ctx sync context
+	 * @param ddlChanges deferred statements
+	 * @throws Exception when any statement fails
+	 */
+	protected void applyDeferredChanges(SyncContext ctx, List<DdlStatement> ddlChanges) throws Exception {
+		List<DdlStatement> others = new ArrayList<>();
+		List<List<DdlStatement>> builds = new ArrayList<>();
+		for(DdlStatement ddl : ddlChanges)
+			if (ddl.kind == CREATE_INDEX)
+				builds.add(new ArrayList<>(Arrays.asList(ddl)));
+			else if (ddl.kind == ADD_UNIQUE && !builds.isEmpty())
+				builds.get(builds.size() - 1).add(ddl);//unique constraint is attached to the index built just before
+			else others.add(ddl);//invalid leftovers with same names as new indexes are dropped before builds
+		if (ddlParallelism > 1)
+			applyConcurrently(ctx, others);
+		else for(DdlStatement ddl : others)
+			executeOutsideTransaction(ctx, ddl);
+		buildIndexes(ctx, builds);
+	}
+
+	/**
+	 * Build indexes concurrently, up to indexParallelism at a time, smallest tables first. Each build session gets its own
+	 * maintenance_work_mem (scaled down for small tables) and parallel workers. Builds wait until their memory fits into indexMemoryBudget
+	 * @param ctx sync context
+	 * @param builds index build statements, each followed by statements depending on that index
+	 * @throws Exception first failure in build order
+	 */
+	private void buildIndexes(SyncContext ctx, List<List<DdlStatement>> builds) throws Exception {
+		if (builds.isEmpty())
+			return;
+		builds.sort(Comparator.comparingLong(build -> tablePages(ctx, build.get(0).tableName)));
+		Semaphore memory = (indexMemoryBudget > 0 && maintenanceWorkMem > 0 ? new Semaphore((int) Math.min(indexMemoryBudget, Integer.MAX_VALUE), true) : null);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(indexParallelism, builds.size()));
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for(List<DdlStatement> build : builds)
+				futures.add(executor.submit(() -> {
+					long buildMemory = indexBuildMemory(tablePages(ctx, build.get(0).tableName));
+					int permits = (int) Math.min(buildMemory, Math.min(indexMemoryBudget, Integer.MAX_VALUE));
+					if (memory != null)
+						memory.acquire(permits);
+					try {
+						executeOutsideTransaction(ctx, build.get(0), ctx.dbAdapter.setMaintenanceSettings(buildMemory, maintenanceWorkers, false), ctx.dbAdapter.resetMaintenanceSettings(buildMemory, maintenanceWorkers));
+						for(DdlStatement ddl : build.subList(1, build.size()))
+							executeOutsideTransaction(ctx, ddl);
+					}
+					finally {
+						if (memory != null)
+							memory.release(permits);
+					}
+					return null;
+				}));
+			for(Future<Object> future : futures)
+				await(future);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private long tablePages(SyncContext ctx, String tableName) {
+		TableDef table = ctx.dbTables.get(tableName);
+		return (table == null ? 0 : table.pages);
+	}
+
+	/**
+	 * @return maintenance_work_mem in megabytes for building an index of a table; no more than table size, but at least the database default
+	 */
+	private long indexBuildMemory(long tablePages) {
+		if (maintenanceWorkMem <= 0)
+			return 0;
+		long tableMegabytes = tablePages * PAGE_SIZE / (1024 * 1024) + 1;
+		return Math.min(maintenanceWorkMem, Math.max(MIN_INDEX_BUILD_MEMORY, tableMegabytes));//unanalyzed tables report 0 pages
+	}
+
+	/**
+	 * Execute each statement unit in its own transaction, as soon as the units it depends on (see {@link DdlGraph}) have completed.
+	 * Up to ddlParallelism units run at a time. After a failure, units not yet started are skipped
+	 * @param ctx sync context
+	 * @param statements statements in detection order
+	 * @throws Exception first failure in detection order
+	 */
+	private void applyConcurrently(SyncContext ctx, List<DdlStatement> statements) throws Exception {
+		if (statements.isEmpty())
+			return;
+		List<List<DdlStatement>> units = DdlGraph.units(statements);
+		Map<String, Set<String>> referencingTables = ctx.dbForeignKeys.values().stream().collect(groupingBy(fk -> fk.foreignTable, mapping(fk -> fk.localTable, toSet())));
+		List<List<Integer>> dependencies = DdlGraph.dependencies(units, referencingTables);
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		AtomicBoolean failed = new AtomicBoolean();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(ddlParallelism, units.size()));
+		try {
+			for(int i = 0; i < units.size(); i++) {
+				List<DdlStatement> unit = units.get(i);
+				CompletableFuture<?>[] deps = dependencies.get(i).stream().map(futures::get).toArray(CompletableFuture[]::new);
+				futures.add(CompletableFuture.allOf(deps).thenRunAsync(() -> {
+					if (failed.get())
+						return;
+					try {
+						if (unit.size() == 1)
+							executeOutsideTransaction(ctx, unit.get(0));
+						else executeInTransaction(ctx, unit);
+					}
+					catch(Exception e) {
+						failed.set(true);
+						throw new CompletionException(e);
+					}
+				}, executor));
+			}
+			for(CompletableFuture<Void> future : futures)
+				await(future);
+		}
+		finally {
+			executor.shutdown();
+		}
 	}
 
-	private void logElementsMessage(String messagePrefix) {
-		if (messageElements.isEmpty())
+	/**
+	 * Validate NOT VALID constraints. Validations of different tables run concurrently, up to validationParallelism at a time
+	 * @param ctx sync context
+	 * @param validations table->validation statements
+	 * @throws Exception when any validation fails
+	 */
+	protected void applyValidations(SyncContext ctx, Map<String, List<DdlStatement>> validations) throws Exception {
+		if (validations.isEmpty())
 			return;
-		logger.accept(messagePrefix + messageElements.stream().collect(joining(", ")));
-		messageElements.clear();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(validationParallelism, validations.size()));
+		try {
+			List<Future<Object>> futures = executor.invokeAll(validations.values().stream().map(statements -> (Callable<Object>) () -> {
+				for(DdlStatement ddl : statements)
+					executeOutsideTransaction(ctx, ddl);
+				return null;
+			}).collect(toList()));
+			for(Future<Object> future : futures)
+				await(future);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private void executeOutsideTransaction(SyncContext ctx, DdlStatement ddl) throws Exception {
+		executeOutsideTransaction(ctx, ddl, Collections.emptyList(), Collections.emptyList());
 	}
 
-	protected void applyChanges(String ddlChanges) throws Exception {
-		db.transaction((db, connection) -> {
+	/**
+	 * @param sessionSettings statements to execute before ddl
+	 * @param sessionResets statements to execute after ddl, restoring session defaults
+	 */
+	private void executeOutsideTransaction(SyncContext ctx, DdlStatement ddl, List<String> sessionSettings, List<String> sessionResets) throws Exception {
+		boolean useLockTimeout = (lockTimeout > 0 && !ctx.dbAdapter.isNonBlocking(ddl.sql));
+		withLockRetry(ctx, events -> ctx.db.transaction((db, connection) -> {
+			connection.setAutoCommit(true);//statements like CREATE INDEX CONCURRENTLY cannot run inside a transaction block
 			try(Statement stmt = connection.createStatement()) {
-				stmt.executeUpdate(ddlChanges);
+				if (useLockTimeout)
+					stmt.execute(ctx.dbAdapter.setLockTimeout(lockTimeout, false));
+				for(String sql : sessionSettings)
+					stmt.execute(sql);
+				try {
+					executeStatement(ctx, stmt, ddl, events);
+				}
+				finally {
+					if (useLockTimeout)
+						stmt.execute(ctx.dbAdapter.resetLockTimeout());
+					for(String sql : sessionResets)
+						stmt.execute(sql);
+				}
+			}
+			finally {
+				connection.setAutoCommit(false);
 			}
 			return null;
+		}));
+	}
+
+	/**
+	 * @param events receives statementExecuted notification, which is sent when the transaction has been committed
+	 */
+	private void executeStatement(SyncContext ctx, Statement stmt, DdlStatement ddl, List<Runnable> events) throws SchemaUpdateException {
+		listeners.forEach(l -> l.statementStarted(ddl));
+		long start = System.nanoTime();
+		try {
+			stmt.executeUpdate(ddl.sql);
+		}
+		catch(SQLException e) {
+			long nanos = System.nanoTime() - start;
+			listeners.forEach(l -> l.statementFailed(ddl, nanos, e));
+			throw new StatementFailure("Failed to execute " + describe(ddl) + ": " + ddl.sql + ": " + e.getMessage(), e, ddl, nanos);
+		}
+		long nanos = System.nanoTime() - start;
+		listeners.forEach(l -> l.statementEnded(ddl));
+		events.add(() -> {
+			Long lockWait = ctx.lockWaits.remove(ddl);
+			listeners.forEach(l -> l.statementExecuted(ddl, nanos, lockWait == null ? 0 : lockWait));
 		});
+		ctx.logger.accept("Executed " + describe(ddl) + " in " + nanos / 1_000_000 + " ms");
+	}
+
+	private static class StatementFailure extends SchemaUpdateException {
+		final DdlStatement statement;
+		final long nanos;
+
+		StatementFailure(String message, Exception cause, DdlStatement statement, long nanos) {
+			super(message, cause);
+			this.statement = statement;
+			this.nanos = nanos;
+		}
+	}
+
+	private String describe(DdlStatement ddl) {
+		return ddl.kind + (ddl.tableName == null ? "" : " on " + ddl.tableName);
+	}
+
+	private interface LockingAction {
+		/**
+		 * @param events notifications to be sent when action has completed successfully
+		 */
+		void run(List<Runnable> events) throws Exception;
+	}
+
+	/**
+	 * Run action; when it fails with lock timeout, retry it with jittered exponential backoff until lockRetryLimit is exhausted.
+	 * Notifications of an attempt are sent only when the attempt succeeds, so that listeners do not see statements of rolled back transactions
+	 */
+	private void withLockRetry(SyncContext ctx, LockingAction action) throws Exception {
+		long deadline = System.currentTimeMillis() + lockRetryLimit;
+		for(int attempt = 1;; attempt++) {
+			List<Runnable> events = new ArrayList<>();
+			try {
+				action.run(events);
+				events.forEach(Runnable::run);
+				return;
+			}
+			catch(Exception e) {
+				if (lockTimeout <= 0 || !ctx.dbAdapter.isLockTimeout(e))
+					throw e;
+				long maxDelay = Math.min(MAX_LOCK_RETRY_DELAY, MIN_LOCK_RETRY_DELAY << Math.min(attempt, 20));
+				long delay = ThreadLocalRandom.current().nextLong(MIN_LOCK_RETRY_DELAY, maxDelay + 1);
+				if (System.currentTimeMillis() + delay > deadline)
+					throw new SchemaUpdateException("Lock not acquired after " + attempt + " attempts: " + e.getMessage(), e);
+				ctx.logger.accept("Lock not acquired (" + e.getMessage() + "), retrying in " + delay + " ms");
+				for(Throwable t = e; t != null; t = t.getCause())
+					if (t instanceof StatementFailure) {
+						StatementFailure sf = (StatementFailure) t;
+						ctx.lockWaits.merge(sf.statement, sf.nanos + delay * 1_000_000, Long::sum);
+						break;
+					}
+				Thread.sleep(delay);
+			}
+		}
 	}
 
 	public SchemaGenerator dropUnused(boolean b) {
 		dropUnused = b;
 		return this;
 	}
+
+	/**
+	 * When enabled, a fingerprint of the model is stored in database after each successful sync.
+	 * Subsequent syncs with an unchanged model return without loading current schema.
+	 * Manual changes in database are not detected while the model remains unchanged.
+	 * @param b true to enable fingerprint check
+	 * @return this
+	 */
+	public SchemaGenerator fingerprint(boolean b) {
+		useFingerprint = b;
+		return this;
+	}
+
+	/**
+	 * When enabled, indexes of existing tables are created and dropped with CREATE/DROP INDEX CONCURRENTLY,
+	 * after main transaction has been committed. This does not block writes to the table during index build.
+	 * New unique constraints of existing tables are built as unique index concurrently and then attached with ADD CONSTRAINT ... USING INDEX.
+	 * Invalid indexes left behind by failed concurrent builds are dropped.
+	 * @param b true to build indexes concurrently
+	 * @return this
+	 */
+	public SchemaGenerator concurrentIndexes(boolean b) {
+		concurrentIndexes = b;
+		return this;
+	}
+
+	/**
+	 * When enabled, NOT NULL is added to existing columns after main transaction has been committed: first a NOT VALID check constraint is added,
+	 * then validated under SHARE UPDATE EXCLUSIVE lock and finally NOT NULL is set (PostgreSQL 12+ skips the table scan due to the valid check).
+	 * Reads and writes to the table are not blocked during validation
+	 * @param b true to add NOT NULL online
+	 * @return this
+	 */
+	public SchemaGenerator onlineNotNull(boolean b) {
+		onlineNotNull = b;
+		return this;
+	}
+
+	/**
+	 * When enabled, new foreign keys and check constraints of existing tables are created as NOT VALID in main transaction
+	 * and validated after all other changes have been applied. Validation holds a SHARE UPDATE EXCLUSIVE lock,
+	 * which does not block reads and writes
+	 * @param b true to validate constraints separately
+	 * @return this
+	 */
+	public SchemaGenerator notValidConstraints(boolean b) {
+		notValidConstraints = b;
+		return this;
+	}
+
+	/**
+	 * @param parallelism max number of tables, whose constraints are validated concurrently (default 1)
+	 * @return this
+	 */
+	public SchemaGenerator validationParallelism(int parallelism) {
+		validationParallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	/**
+	 * Load current schema with up to this many concurrent catalog queries, each on its own connection.
+	 * Introspection then takes as long as the slowest query instead of the sum of all queries.
+	 * All queries see the snapshot exported by one more connection, which stays in transaction until they complete
+	 * @param parallelism max number of concurrent catalog queries (default 1, max 8 are used)
+	 * @return this
+	 */
+	public SchemaGenerator catalogParallelism(int parallelism) {
+		catalogParallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	/**
+	 * Column type changes, which require a table rewrite, and changes of table persistence or tablespace are not applied to tables larger than this limit.
+	 * Table size is estimated by database statistics and is accurate after VACUUM or ANALYZE.
+	 * See {@link #deferLargeRewrites(boolean)}
+	 * @param pages max table size in pages (8kB by default in PostgreSQL)
+	 * @return this
+	 */
+	public SchemaGenerator maxRewritePages(long pages) {
+		maxRewritePages = pages;
+		return this;
+	}
+
+	/**
+	 * When enabled, rewrites exceeding maxRewritePages are logged and left for a later sync, while other changes are applied.
+	 * When disabled (default), such a rewrite fails the sync with SchemaUpdateException before any changes have been applied.
+	 * @param b true to defer large rewrites
+	 * @return this
+	 */
+	public SchemaGenerator deferLargeRewrites(boolean b) {
+		deferLargeRewrites = b;
+		return this;
+	}
+
+	/**
+	 * Limit the time each DDL statement waits for its table lock. A statement queued behind a long-running query would otherwise
+	 * block all subsequent queries on that table. When the lock is not acquired, main transaction or deferred statement
+	 * is retried with jittered exponential backoff. Concurrent index builds and constraint validations do not block others and run without limit
+	 * @param millis lock timeout in milliseconds; 0 (default) uses database default
+	 * @return this
+	 */
+	public SchemaGenerator lockTimeout(long millis) {
+		lockTimeout = millis;
+		return this;
+	}
+
+	/**
+	 * @param millis total time for retrying a statement after lock timeouts, 60 seconds by default
+	 * @return this
+	 */
+	public SchemaGenerator lockRetryLimit(long millis) {
+		lockRetryLimit = millis;
+		return this;
+	}
+
+	/**
+	 * Apply changes of unrelated tables concurrently, on up to this many connections. Statements of a table keep their order,
+	 * foreign keys wait for referenced tables, sequences are created first and dropped last.
+	 * NB! With parallelism above 1, each statement is committed separately: a failure leaves preceding changes in place
+	 * @param parallelism max number of concurrent DDL statements (default 1: all changes in a single transaction)
+	 * @return this
+	 */
+	public SchemaGenerator ddlParallelism(int parallelism) {
+		ddlParallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	/**
+	 * When enabled, enum fields are stored as native enumerated types (one type per Java enum) instead of character varying with a check constraint.
+	 * New constants are added with ALTER TYPE ... ADD VALUE, without scanning tables. Existing varchar columns are converted to enumerated type.
+	 * NB! JDBC binds enums as strings, so the connection needs stringtype=unspecified for inserting enum values
+	 * @param b true to use native enumerated types
+	 * @return this
+	 */
+	public SchemaGenerator nativeEnums(boolean b) {
+		nativeEnums = b;
+		return this;
+	}
+
+	/**
+	 * When enabled, @JSon fields are stored as jsonb instead of json, so that queries do not reparse the text and GIN indexes can be declared.
+	 * Existing json columns are converted with a table rewrite (see maxRewritePages)
+	 * @param b true to store @JSon fields as jsonb
+	 * @return this
+	 */
+	public SchemaGenerator jsonb(boolean b) {
+		jsonb = b;
+		return this;
+	}
+
+	/**
+	 * Build up to this many indexes concurrently after main transaction (requires concurrentIndexes), smallest tables first
+	 * @param parallelism max number of concurrent index builds (default 1)
+	 * @return this
+	 */
+	public SchemaGenerator indexParallelism(int parallelism) {
+		indexParallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	/**
+	 * Set maintenance_work_mem for index builds. Concurrent builds of tables smaller than this get less memory, down to 64MB
+	 * @param megabytes memory for a single index build; 0 (default) uses database default
+	 * @return this
+	 */
+	public SchemaGenerator maintenanceWorkMem(long megabytes) {
+		maintenanceWorkMem = megabytes;
+		return this;
+	}
+
+	/**
+	 * @param workers max_parallel_maintenance_workers for a single index build (PostgreSQL 11+); negative (default) uses database default
+	 * @return this
+	 */
+	public SchemaGenerator maintenanceWorkers(int workers) {
+		maintenanceWorkers = workers;
+		return this;
+	}
+
+	/**
+	 * Limit total maintenance_work_mem of concurrent index builds. Builds wait until their memory fits into the budget
+	 * @param megabytes memory budget; 0 (default) for no limit. Effective only together with maintenanceWorkMem
+	 * @return this
+	 */
+	public SchemaGenerator indexMemoryBudget(long megabytes) {
+		indexMemoryBudget = megabytes;
+		return this;
+	}
+
+	/**
+	 * @param executor executor for syncing schemas in syncSchemas; it is not shut down by SchemaGenerator.
+	 * By default, virtual threads are used on Java 21+ and a pool of connectionBudget threads otherwise
+	 * @return this
+	 */
+	public SchemaGenerator schemaExecutor(ExecutorService executor) {
+		schemaExecutor = executor;
+		return this;
+	}
+
+	/**
+	 * Limit the number of connections used concurrently by syncSchemas. Each schema reserves as many connections
+	 * as its catalog queries and validations may use in parallel (see catalogParallelism and validationParallelism)
+	 * @param connections max number of concurrent connections (default 10)
+	 * @return this
+	 */
+	public SchemaGenerator connectionBudget(int connections) {
+		connectionBudget = Math.max(1, connections);
+		return this;
+	}
 }
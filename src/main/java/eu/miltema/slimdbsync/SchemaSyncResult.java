@@ -0,0 +1,33 @@
+package eu.miltema.slimdbsync;
+
+/**
+ * Outcome of syncing a single schema with {@link SchemaGenerator#syncSchemas}
+ */
+public class SchemaSyncResult {
+	public final String schema;
+
+	/**
+	 * Failure of this schema, or null if sync succeeded
+	 */
+	public final Exception exception;
+
+	/**
+	 * Duration of sync, excluding time spent waiting for connection budget
+	 */
+	public final long nanos;
+
+	SchemaSyncResult(String schema, Exception exception, long nanos) {
+		this.schema = schema;
+		this.exception = exception;
+		this.nanos = nanos;
+	}
+
+	public boolean isSuccess() {
+		return exception == null;
+	}
+
+	@Override
+	public String toString() {
+		return schema + (exception == null ? " synced" : " failed: " + exception.getMessage()) + " in " + nanos / 1_000_000 + " ms";
+	}
+}
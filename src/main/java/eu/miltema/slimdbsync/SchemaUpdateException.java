@@ -12,6 +12,10 @@ public class SchemaUpdateException extends RuntimeException {
 		super(cause);
 	}
 
+	public SchemaUpdateException(String message, Exception cause) {
+		super(message, cause);
+	}
+
 	public SchemaUpdateException(Field field, String message) {
 		super(ref(field) + message);
 	}
@@ -0,0 +1,20 @@
+package eu.miltema.slimdbsync;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.*;
+
+/**
+ * Parameters of the sequence, which generates values of a @GeneratedValue field. Overrides @SequenceGenerator initialValue and allocationSize
+ */
+@Retention(RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Sequence {
+	long start() default 1;
+	long increment() default 1;
+
+	/**
+	 * Number of values preallocated by each database session; values not used by the session are lost
+	 */
+	long cache() default 1;
+}
@@ -1,6 +1,8 @@
 package eu.miltema.slimdbsync;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import eu.miltema.slimdbsync.def.*;
 import eu.miltema.slimorm.Database;
@@ -8,10 +10,12 @@ import eu.miltema.slimorm.Database;
 public class SyncContext {
 	public Database db;
 	public String schema;
+	public DatabaseAdapter dbAdapter;
+	public Consumer<String> logger;
 	public Map<String, TableDef> modelTables; // name->TableDef
 	public Map<String, TableDef> dbTables; // name->TableDef
-	public Set<String> modelSequenceNames;
-	public Set<String> dbSequenceNames;
+	public Map<String, SequenceDef> modelSequences; // name->SequenceDef
+	public Map<String, SequenceDef> dbSequences; // name->SequenceDef
 	public Map<String, PrimaryKeyDef> modelPrimaryKeys; // tbl->PrimaryKeyDef
 	public Map<String, PrimaryKeyDef> dbPrimaryKeys; // tbl->PrimaryKeyDef
 	public Map<String, ForeignKeyDef> modelForeignKeys; //tbl/col->PrimaryKeyDef
@@ -22,8 +26,15 @@ public class SyncContext {
 	public Map<String, CheckDef> dbChecks; //tbl/col/valList->CheckDef
 	public Map<String, IndexDef> modelIndexes; //tbl/colList->IndexDef
 	public Map<String, IndexDef> dbIndexes; //tbl/colList->IndexDef
+	public List<IndexDef> dbInvalidIndexes; //indexes left behind by failed concurrent builds
+	public Map<String, EnumTypeDef> modelEnumTypes; //name->EnumTypeDef
+	public Map<String, EnumTypeDef> dbEnumTypes; //name->EnumTypeDef
+	public boolean changesPostponed; //some changes were intentionally not applied during this sync
+	public boolean dryRun; //changes are detected for a plan, not applied
+	public Set<DdlStatement> oversizedRewrites = new HashSet<>(); //plan only: rewrites of tables exceeding maxRewritePages, which sync would defer or refuse
+	public Map<DdlStatement, Long> lockWaits = new ConcurrentHashMap<>(); //statement->nanos lost to lock timeouts so far
 
 	public String getSchema() {
-		return db.getSchema();
+		return (schema != null ? schema : db.getSchema());
 	}
 }
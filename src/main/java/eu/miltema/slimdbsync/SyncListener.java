@@ -0,0 +1,67 @@
+package eu.miltema.slimdbsync;
+
+/**
+ * Receives timings of sync. All methods have empty default implementations.
+ * Each operation is started and completed on the same thread; schemas, catalog queries, statements and validations
+ * may run in parallel threads, so methods may be invoked concurrently
+ */
+public interface SyncListener {
+
+	/**
+	 * @param phase phase name, see phaseCompleted
+	 */
+	default void phaseStarted(String phase) {
+	}
+
+	/**
+	 * @param phase phase name: initModelTables, loadCurrentSchema, detectChanges, applyChanges, applyDeferredChanges or applyValidations
+	 * @param nanos elapsed time
+	 */
+	default void phaseCompleted(String phase, long nanos) {
+	}
+
+	/**
+	 * @param query catalog query name, see catalogQueryCompleted
+	 */
+	default void catalogQueryStarted(String query) {
+	}
+
+	/**
+	 * @param query catalog query name, equal to DatabaseAdapter method name (for example loadCurrentTables)
+	 * @param nanos elapsed time
+	 */
+	default void catalogQueryCompleted(String query, long nanos) {
+	}
+
+	/**
+	 * Invoked before each attempt to execute the statement
+	 * @param statement statement to be executed
+	 */
+	default void statementStarted(DdlStatement statement) {
+	}
+
+	/**
+	 * Invoked when the statement has been executed, before its transaction is committed.
+	 * If the transaction is then rolled back and retried, statementStarted is invoked again
+	 * @param statement executed statement
+	 */
+	default void statementEnded(DdlStatement statement) {
+	}
+
+	/**
+	 * Invoked after the transaction of the statement has been committed; statements of rolled back transactions are not reported
+	 * @param statement executed statement
+	 * @param nanos execution time of the successful attempt, including time spent waiting for locks during that attempt
+	 * @param lockWaitNanos time lost to timed out attempts and retry backoff before the successful attempt; always 0 without lockTimeout
+	 */
+	default void statementExecuted(DdlStatement statement, long nanos, long lockWaitNanos) {
+	}
+
+	/**
+	 * @param statement failed statement
+	 * @param nanos execution time of the failed attempt
+	 * @param e failure
+	 */
+	default void statementFailed(DdlStatement statement, long nanos, Exception e) {
+	}
+}
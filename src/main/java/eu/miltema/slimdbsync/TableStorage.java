@@ -0,0 +1,32 @@
+package eu.miltema.slimdbsync;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Storage settings of the table
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface TableStorage {
+	/**
+	 * Storage parameters as name=value, for example {"fillfactor=70", "autovacuum_vacuum_scale_factor=0.01", "toast.autovacuum_enabled=false"}.
+	 * Parameters of the table are synced with this list: parameters not listed are reset to defaults.
+	 * Storage parameters of tables without this annotation are not managed
+	 */
+	String[] parameters() default {};
+
+	/**
+	 * Unlogged table is not written to WAL: writes are faster, but contents are lost after a crash and not replicated.
+	 * Persistence of tables without this annotation is not managed
+	 */
+	boolean unlogged() default false;
+
+	/**
+	 * Tablespace of the table; when empty, tablespace of the table is not managed
+	 */
+	String tablespace() default "";
+}
@@ -0,0 +1,22 @@
+package eu.miltema.slimdbsync;
+
+/**
+ * Cost class of a column type change
+ */
+public enum TypeChange {
+
+	/**
+	 * Only catalog is updated, table data and indexes are not touched
+	 */
+	BINARY_COERCIBLE,
+
+	/**
+	 * Values are converted, which rewrites the whole table and rebuilds its indexes
+	 */
+	REWRITE,
+
+	/**
+	 * There is no conversion between these types
+	 */
+	NOT_CASTABLE
+}
@@ -13,6 +13,7 @@ public class CheckDef {
 	public String tableName;
 	public String columnName;
 	public String[] validValues;
+	public boolean isValidated = true;//false for NOT VALID constraint, which has not been validated yet
 
 	@Override
 	public String toString() {
@@ -12,6 +12,11 @@ public class ColumnDef {
 	 */
 	public String sourceSequence;
 
+	/**
+	 * Parameters of identity sequence; null, if this is not an identity column
+	 */
+	public SequenceDef identity;
+
 	/**
 	 * A value from @Column(columnDefinition)
 	 */
@@ -0,0 +1,23 @@
+package eu.miltema.slimdbsync.def;
+
+import java.util.List;
+
+/**
+ * Enumerated type properties
+ *
+ */
+public class EnumTypeDef {
+	public String name;
+	public List<String> values;//in sort order
+	public boolean hasOtherDependents;//current type is used by other objects than table columns of the schema, for example by functions, views or tables of other schemas
+
+	public EnumTypeDef(String name, List<String> values) {
+		this.name = name;
+		this.values = values;
+	}
+
+	@Override
+	public String toString() {
+		return name + "/" + String.join(",", values);
+	}
+}
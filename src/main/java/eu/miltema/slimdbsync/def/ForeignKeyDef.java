@@ -6,6 +6,7 @@ public class ForeignKeyDef {
 	public String foreignTable;
 	public String foreignColumn;
 	public String constraintName;
+	public boolean isValidated = true;//false for NOT VALID constraint, which has not been validated yet
 
 	public ForeignKeyDef(String localTable, String localColumn, String foreignTable, String foreignColumn, String constraintName) {
 		this.localTable = localTable;
@@ -1,16 +1,119 @@
 package eu.miltema.slimdbsync.def;
 
 import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.regex.*;
+import java.util.stream.*;
 
 public class IndexDef {
 	public String name;//index name
 	public String tableName;
-	public String[] columns;
+	public String[] columns;//column names or expressions
+	public String[] orders;//sort order of each key, see order(); null for default order of all keys
+	public String method = "btree";
+	public String operatorClass;//operator class of all keys, for example jsonb_path_ops; null for default operator classes
+	public String[] include = new String[0];
+	public String where;//predicate of partial index; null for full index
+	public String tablespace;//null for model indexes with unmanaged tablespace; not part of index identity, since index can be moved
 	public boolean isUniqueIndex;
+	public boolean isValid = true;//false for indexes left behind by failed concurrent builds
+
+	/**
+	 * Whitespace, which does not separate two words
+	 */
+	public static final String INSIGNIFICANT_SPACE = "^ | $| (?=[^a-z0-9_])|(?<=[^a-z0-9_]) ";
+	private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+	private static final Pattern KEY_WITH_ORDER = Pattern.compile("(?i)^(.*?)(?:\\s+(ASC|DESC))?(?:\\s+NULLS\\s+(FIRST|LAST))?$");
+
+	/**
+	 * @param desc descending order
+	 * @param nullsFirst nulls are sorted before other values
+	 * @return canonical sort order; empty for default order (ASC NULLS LAST)
+	 */
+	public static String order(boolean desc, boolean nullsFirst) {
+		if (desc)
+			return (nullsFirst ? "DESC" : "DESC NULLS LAST");
+		return (nullsFirst ? "NULLS FIRST" : "");
+	}
+
+	/**
+	 * Set columns and orders from keys declared as "column_or_expression [ASC|DESC] [NULLS FIRST|LAST]"
+	 * @param keys declared keys
+	 */
+	public void setKeys(String[] keys) {
+		columns = new String[keys.length];
+		orders = new String[keys.length];
+		for(int i = 0; i < keys.length; i++) {
+			Matcher m = KEY_WITH_ORDER.matcher(keys[i].trim());
+			m.matches();
+			boolean desc = "DESC".equalsIgnoreCase(m.group(2));
+			columns[i] = m.group(1);
+			orders[i] = order(desc, m.group(3) == null ? desc : "FIRST".equalsIgnoreCase(m.group(3)));
+		}
+	}
+
+	/**
+	 * @param key index key
+	 * @return true, if key is a plain column name, not an expression
+	 */
+	public static boolean isColumn(String key) {
+		return COLUMN_NAME.matcher(key).matches();
+	}
+
+	/**
+	 * Canonical form of a column name or of an expression printed by database (see DatabaseAdapter.canonicalIndexes).
+	 * Outside of string literals, expression is lowercased, identifier quotes and whitespace not separating words are removed
+	 * @param expression expression or column name
+	 * @return canonical form
+	 */
+	public static String normalize(String expression) {
+		String[] parts = expression.split("'", -1);
+		for(int i = 0; i < parts.length; i += 2)//even parts are outside of string literals; escaped quote '' yields an empty part
+			parts[i] = parts[i].toLowerCase().replace("\"", "").replaceAll("\\s+", " ").replaceAll(INSIGNIFICANT_SPACE, "");
+		return String.join("'", parts);
+	}
+
+	/**
+	 * @return true, if any key is an expression or index is partial; database must print such index before it can be compared
+	 */
+	public boolean hasExpressions() {
+		return where != null || !Arrays.stream(columns).allMatch(IndexDef::isColumn);
+	}
+
+	/**
+	 * @return copy of this index definition
+	 */
+	public IndexDef copy() {
+		IndexDef copy = new IndexDef();
+		copy.name = name;
+		copy.tableName = tableName;
+		copy.columns = columns.clone();
+		copy.orders = (orders == null ? null : orders.clone());
+		copy.method = method;
+		copy.operatorClass = operatorClass;
+		copy.include = include.clone();
+		copy.where = where;
+		copy.tablespace = tablespace;
+		copy.isUniqueIndex = isUniqueIndex;
+		copy.isValid = isValid;
+		return copy;
+	}
+
+	/**
+	 * @return access method, followed by operator class when present
+	 */
+	public String methodWithOperatorClass() {
+		return method + (operatorClass == null ? "" : " " + operatorClass);
+	}
+
+	/**
+	 * @return normalized keys with sort orders, comma-separated
+	 */
+	public String keys() {
+		return IntStream.range(0, columns.length).mapToObj(i -> normalize(columns[i]) + (orders == null || orders[i].isEmpty() ? "" : " " + orders[i])).collect(Collectors.joining(","));
+	}
 
 	@Override
 	public String toString() {
-		return tableName + "/" + Arrays.stream(columns).collect(Collectors.joining(","));
+		return tableName + "/" + keys() + "/" + methodWithOperatorClass() + "/" + Arrays.stream(include).map(IndexDef::normalize).collect(Collectors.joining(",")) + "/" + (where == null ? "" : normalize(where));
 	}
 }
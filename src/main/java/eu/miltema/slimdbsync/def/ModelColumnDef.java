@@ -5,6 +5,7 @@ import javax.persistence.*;
 
 import eu.miltema.slimdbsync.DatabaseAdapter;
 import eu.miltema.slimdbsync.SchemaUpdateException;
+import eu.miltema.slimdbsync.Sequence;
 import eu.miltema.slimorm.*;
 
 public class ModelColumnDef extends ColumnDef {
@@ -13,6 +14,9 @@ public class ModelColumnDef extends ColumnDef {
 	public boolean isUnique;//only initialized for model columns; not initialized for database columns
 	public boolean isIdTableStrategy;
 	public boolean isForeignKey;
+	public SequenceDef sequence;//only initialized for model columns with sourceSequence
+
+	private static final int JPA_ALLOCATION_SIZE = 50;
 
 	public ModelColumnDef(EntityProperties eprop, FieldProperties fprop, DatabaseAdapter dbAdapter) {
 		name = fprop.columnName;
@@ -23,6 +27,8 @@ public class ModelColumnDef extends ColumnDef {
 			isForeignKey = true;//cannot set type here, since target entity may have not been initialized yet
 		else type = (isJson ? dbAdapter.sqlTypeForJSon() : dbAdapter.sqlType(fprop.fieldType));
 		sourceSequence = getSourceSequence(eprop, fprop, dbAdapter);
+		if (sourceSequence != null)
+			sequence = initSequence(fprop.field);
 		if (fprop.field.isAnnotationPresent(Column.class)) {
 			Column column = fprop.field.getAnnotation(Column.class);
 			columnDefinitionOverride = column.columnDefinition();
@@ -32,6 +38,10 @@ public class ModelColumnDef extends ColumnDef {
 				isUnique = true;
 		}
 		initId(fprop.field.getAnnotation(GeneratedValue.class));
+		if (isIdentity) {
+			identity = initSequence(fprop.field);//identity sequence is owned by the column and has no declared name
+			isNullable = false;
+		}
 
 		if (isIdentity && isForeignKey)
 			throw new SchemaUpdateException(fprop.field, "@Id and @ManyToOne are mutually exclusive");
@@ -73,6 +83,9 @@ public class ModelColumnDef extends ColumnDef {
 				String seqName = gv.generator();
 				if (seqName == null || seqName.trim().isEmpty())
 					return dbAdapter.getDefaultSequenceName(e.tableName, f.columnName);
+				SequenceGenerator sg = getSequenceGenerator(f.field);
+				if (sg != null && !sg.sequenceName().trim().isEmpty())
+					return sg.sequenceName().trim();
 				else return seqName.trim();
 			}
 		}
@@ -81,6 +94,36 @@ public class ModelColumnDef extends ColumnDef {
 		return null;
 	}
 
+	/**
+	 * @return @SequenceGenerator (of field or entity class), which is referred to by @GeneratedValue(generator), or null
+	 */
+	private SequenceGenerator getSequenceGenerator(Field field) {
+		GeneratedValue gv = field.getAnnotation(GeneratedValue.class);
+		SequenceGenerator sg = field.getAnnotation(SequenceGenerator.class);
+		if (sg == null)
+			sg = field.getDeclaringClass().getAnnotation(SequenceGenerator.class);
+		return (gv != null && sg != null && sg.name().equals(gv.generator()) ? sg : null);
+	}
+
+	private SequenceDef initSequence(Field field) {
+		SequenceDef seq = new SequenceDef(sourceSequence);
+		SequenceGenerator sg = getSequenceGenerator(field);
+		if (sg != null) {
+			seq.start = sg.initialValue();
+			if (sg.allocationSize() != JPA_ALLOCATION_SIZE)//JPA default cannot be told apart from an explicit value; sequence keeps increment 1
+				seq.increment = sg.allocationSize();//as defined by JPA
+			else seq.allocationSizeIgnored = true;
+		}
+		Sequence s = field.getAnnotation(Sequence.class);
+		if (s != null) {
+			seq.allocationSizeIgnored = false;
+			seq.start = s.start();
+			seq.increment = s.increment();
+			seq.cache = s.cache();
+		}
+		return seq;
+	}
+
 	@Override
 	public boolean isPrimaryKey() {
 		return isPrimaryKey;
@@ -0,0 +1,27 @@
+package eu.miltema.slimdbsync.def;
+
+import java.util.*;
+
+public class PartitionDef {
+	public String method;//RANGE, LIST or HASH
+	public String column;//partition column
+	public Map<String, String> partitions = new LinkedHashMap<>();//partition name -> bounds; bounds of database partitions are in database's own notation
+
+	public PartitionDef(String method, String column) {
+		this.method = method;
+		this.column = column;
+	}
+
+	/**
+	 * @param partitioning another partitioning, or null
+	 * @return true, if both tables are partitioned by the same method and column
+	 */
+	public boolean hasSameKey(PartitionDef partitioning) {
+		return partitioning != null && method.equals(partitioning.method) && Objects.equals(column, partitioning.column);
+	}
+
+	@Override
+	public String toString() {
+		return method + "(" + column + ")";
+	}
+}
@@ -0,0 +1,33 @@
+package eu.miltema.slimdbsync.def;
+
+/**
+ * Sequence properties
+ *
+ */
+public class SequenceDef {
+	public String name;
+	public long start = 1;
+	public long increment = 1;
+	public long cache = 1;//values preallocated per session
+	public boolean allocationSizeIgnored;//model: allocationSize of @SequenceGenerator is 50, which may be the JPA default and is not used as increment
+
+	public SequenceDef(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return minimum value, which allows the sequence to start from its start value
+	 */
+	public long minValue() {
+		return Math.min(1, start);
+	}
+
+	public boolean hasSameParameters(SequenceDef seq) {
+		return start == seq.start && increment == seq.increment && cache == seq.cache;
+	}
+
+	@Override
+	public String toString() {
+		return name + "/" + start + "/" + increment + "/" + cache;
+	}
+}
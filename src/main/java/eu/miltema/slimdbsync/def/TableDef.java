@@ -7,4 +7,10 @@ public class TableDef {
 	public String name;
 	public Map<String, ColumnDef> columns;
 	public List<String> columnOrder = new ArrayList<String>();
+	public long pages;//database table size in pages, as estimated by database
+	public long estimatedRows;//database table row count, as estimated by database
+	public PartitionDef partitioning;//null for non-partitioned tables
+	public boolean isUnlogged;//not managed for model tables without declared storage parameters
+	public String tablespace;//null for model tables with unmanaged tablespace
+	public Map<String, String> storageParameters;//name -> value, toast parameters prefixed with "toast."; null for model tables without declared storage parameters
 }
@@ -2,12 +2,13 @@ package eu.miltema.slimdbsync.pg;
 
 import static java.util.stream.Collectors.*;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.*;
 import java.util.*;
-import java.util.stream.Stream;
-
-import com.google.gson.Gson;
+import java.util.stream.*;
 
 import eu.miltema.slimdbsync.*;
 import eu.miltema.slimdbsync.def.*;
@@ -23,62 +24,220 @@ public class PgAdapter implements DatabaseAdapter {
 
 	private static final String ENDL = "\r\n";
 
+	/**
+	 * Table for SlimDbSync's own metadata; this table is never reported as an existing table
+	 */
+	static final String METADATA_TABLE = "slimdbsync_metadata";
+	private static final String FINGERPRINT_KEY = "model_fingerprint";
+
+	/**
+	 * Comma-separated constraint column names in constraint key order
+	 */
+	private static final String KEY_COLUMNS = "(SELECT string_agg(a.attname, ',' ORDER BY k.ord) " +
+			"FROM unnest(con.conkey) WITH ORDINALITY k(attnum, ord) JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = k.attnum)";
+
+	/**
+	 * Key expressions of index i (column names, or expressions for expression keys), separated by KEY_SEPARATOR, since expressions may contain commas; PostgreSQL 11+
+	 */
+	private static final String INDEX_KEYS = "(SELECT string_agg(pg_get_indexdef(i.indexrelid, k.n, true), chr(31) ORDER BY k.n) FROM generate_series(1, i.indnkeyatts) k(n))";
+	private static final String INCLUDED_KEYS = "(SELECT string_agg(pg_get_indexdef(i.indexrelid, k.n, true), chr(31) ORDER BY k.n) FROM generate_series(i.indnkeyatts + 1, i.indnatts) k(n))";
+	private static final String KEY_SEPARATOR = "\u001F";
+
+	/**
+	 * Temporary table, on which model indexes are created to let database print their keys and predicates
+	 */
+	private static final String PROBE_TABLE = "slimdbsync_probe";
+
+	/**
+	 * Non-default operator class of the keys of index i; null, if all keys use default operator classes of their types
+	 */
+	private static final String OPERATOR_CLASS = "(SELECT min(opc.opcname) FROM generate_series(0, i.indnkeyatts - 1) k(n) JOIN pg_opclass opc ON opc.oid = i.indclass[k.n] WHERE NOT opc.opcdefault)";
+
+	/**
+	 * Sort order of index key k.n, as in IndexDef.order
+	 */
+	private static final String KEY_ORDER = "CASE WHEN i.indoption[k.n - 1] & 1 = 1 THEN CASE WHEN i.indoption[k.n - 1] & 2 = 2 THEN ' DESC' ELSE ' DESC NULLS LAST' END " +
+			"WHEN i.indoption[k.n - 1] & 2 = 2 THEN ' NULLS FIRST' ELSE '' END";
+
+	/**
+	 * Type groups, within which values are converted with a table rewrite
+	 */
+	private static final List<Set<String>> CASTABLE_GROUPS = Arrays.asList(
+			new HashSet<>(Arrays.asList("smallint", "integer", "bigint", "real", "double precision", "numeric")),
+			new HashSet<>(Arrays.asList("integer", "boolean")),
+			new HashSet<>(Arrays.asList("date", "timestamp without time zone", "timestamp with time zone")),
+			new HashSet<>(Arrays.asList("json", "jsonb")));
+
+	/**
+	 * Type pairs (from|to) with binary-compatible storage, which are changed without a table rewrite
+	 */
+	private static final Set<String> BINARY_COERCIBLE = new HashSet<>(Arrays.asList(
+			"character varying|text", "text|character varying"));
+
+	private static final Set<String> STRING_TYPES = new HashSet<>(Arrays.asList("character varying", "text", "character"));
+
+	/**
+	 * Condition for pg_class c, which excludes sequences owned by identity columns
+	 */
+	private static final String NOT_IDENTITY_SEQUENCE = "NOT EXISTS (SELECT 1 FROM pg_depend dep WHERE dep.classid = 'pg_class'::regclass AND dep.objid = c.oid AND dep.deptype = 'i')";
+
 	private String schema;
-	private Collection<UniqueDef> uniques = new ArrayList<>();
-	private Collection<CheckDef> checks = new ArrayList<>();
 
 	public PgAdapter(String schema) {
 		this.schema = schema;
 	}
 
 	@Override
-	public Set<String> loadCurrentSequenceNames(Database db) throws Exception {
-		return db.where("sequence_schema=?", db.getSchema()).stream(PgSequence.class).map(seq -> seq.sequenceName).collect(toSet());
+	public DatabaseAdapter forSchema(String schema) {
+		return new PgAdapter(schema);
+	}
+
+	@Override
+	public Collection<SequenceDef> loadCurrentSequences(Database db) throws Exception {
+		final String sql = "SELECT c.relname AS sequencename, s.seqstart AS start_value, s.seqincrement AS increment_by, s.seqcache AS cache_size " +
+				"FROM pg_sequence s " +
+				"  JOIN pg_class c ON c.oid = s.seqrelid " +
+				"  JOIN pg_namespace n ON n.oid = c.relnamespace " +
+				"WHERE n.nspname=? AND " + NOT_IDENTITY_SEQUENCE;
+		return db.sql(sql, schema).stream(PgSequence.class).map(pgs -> {//PostgreSQL 10+
+			SequenceDef seq = new SequenceDef(pgs.sequencename);
+			seq.start = pgs.startValue;
+			seq.increment = pgs.incrementBy;
+			seq.cache = pgs.cacheSize;
+			return seq;
+		}).collect(toList());
 	}
 
 	@Override
 	public Collection<TableDef> loadCurrentTables(Database db) throws Exception {
-		List<TableDef> tables = db.where("schemaname=?", schema).stream(PgTable.class).map(t -> {
+		// Partitions are not reported as tables; they are listed in partitioning of their parent table
+		final String tablesSql = "SELECT c.relname AS tablename, array_to_string(c.reloptions, chr(31)) AS options, array_to_string(t.reloptions, chr(31)) AS toast_options, " +
+				"c.relpersistence::text AS relpersistence, " + tablespaceOf("c") + " AS tablespace " +
+				"FROM pg_class c " +
+				"  LEFT JOIN pg_class t ON t.oid = c.reltoastrelid " +
+				"  JOIN pg_namespace n ON n.oid = c.relnamespace " +
+				"WHERE n.nspname=? AND c.relkind IN ('r', 'p') AND NOT c.relispartition AND c.relname<>?";
+		Map<String, TableDef> tables = db.sql(tablesSql, schema, METADATA_TABLE).stream(PgTable.class).map(t -> {
 			TableDef table = new TableDef();
 			table.name = t.tablename;
+			table.columns = new HashMap<>();
+			table.isUnlogged = "u".equals(t.relpersistence);
+			table.tablespace = t.tablespace;
+			table.storageParameters = new TreeMap<>();
+			if (t.options != null)
+				Arrays.stream(t.options.split(KEY_SEPARATOR)).forEach(o -> table.storageParameters.put(o.substring(0, o.indexOf('=')), o.substring(o.indexOf('=') + 1)));
+			if (t.toastOptions != null)
+				Arrays.stream(t.toastOptions.split(KEY_SEPARATOR)).forEach(o -> table.storageParameters.put("toast." + o.substring(0, o.indexOf('=')), o.substring(o.indexOf('=') + 1)));
 			return table;
+		}).collect(toMap(t -> t.name, t -> t));
+		final String partitionsSql = "SELECT c.relname AS table_name, pt.partstrat::text AS strategy, a.attname AS column_name, " +
+				"p.relname AS partition_name, pg_get_expr(p.relpartbound, p.oid) AS bounds " +
+				"FROM pg_partitioned_table pt " +
+				"  JOIN pg_class c ON c.oid = pt.partrelid " +
+				"  JOIN pg_namespace n ON n.oid = c.relnamespace " +
+				"  LEFT JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = pt.partattrs[0] " +//null for expression keys
+				"  LEFT JOIN pg_inherits inh ON inh.inhparent = c.oid " +
+				"  LEFT JOIN pg_class p ON p.oid = inh.inhrelid " +
+				"WHERE n.nspname=?";
+		db.sql(partitionsSql, schema).stream(PgPartition.class).forEach(r -> {
+			TableDef table = tables.get(r.tableName);
+			if (table == null)
+				return;//partitioned table is itself a partition
+			if (table.partitioning == null)
+				table.partitioning = new PartitionDef("r".equals(r.strategy) ? "RANGE" : "l".equals(r.strategy) ? "LIST" : "HASH", r.columnName);
+			if (r.partitionName != null)
+				table.partitioning.partitions.put(r.partitionName, r.bounds);
+		});
+		// All columns of the schema are loaded with a single query and then distributed between tables
+		final String sql = "SELECT c.relname AS table_name, a.attname AS column_name, format_type(a.atttypid, NULL) AS data_type, " +
+				"NOT a.attnotnull AS is_nullable, pg_get_expr(d.adbin, d.adrelid) AS column_default, a.attnum AS ordinal_position, " +
+				sizeOf("c", "relpages") + " AS relpages, " + sizeOf("c", "reltuples") + " AS reltuples, a.attidentity::text AS attidentity, " +
+				"s.seqstart AS identity_start, s.seqincrement AS identity_increment, s.seqcache AS identity_cache " +
+				"FROM pg_attribute a " +
+				"  JOIN pg_class c ON c.oid = a.attrelid " +
+				"  JOIN pg_namespace n ON n.oid = c.relnamespace " +
+				"  LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum " +
+				"  LEFT JOIN (pg_depend dep JOIN pg_sequence s ON s.seqrelid = dep.objid) " +//identity sequence is an internal dependency of its column
+				"    ON dep.classid = 'pg_class'::regclass AND dep.refobjid = c.oid AND dep.refobjsubid = a.attnum AND dep.deptype = 'i' " +
+				"WHERE n.nspname=? AND c.relkind IN ('r', 'p') AND NOT c.relispartition AND a.attnum > 0 AND NOT a.attisdropped";
+		db.sql(sql, schema).stream(PgColumn.class).forEach(r -> {
+			TableDef table = tables.get(r.tableName);
+			if (table == null)
+				return;
+			table.pages = r.relpages;
+			table.estimatedRows = Math.max(r.reltuples, 0);//-1 means never analyzed
+			ColumnDef col = new ColumnDef();
+			col.name = r.name;
+			col.type = r.dataType.toLowerCase();
+			col.isNullable = r.isNullable;
+			col.isJson = "json".equalsIgnoreCase(r.dataType) || "jsonb".equalsIgnoreCase(r.dataType);
+			col.ordinal = r.ordinalPosition;
+			if (r.defaultValue != null && r.defaultValue.startsWith("nextval('") && r.defaultValue.endsWith("'::regclass)"))
+				col.sourceSequence = r.defaultValue.substring(9, r.defaultValue.length() - 12);
+			if (r.attidentity != null && !r.attidentity.isEmpty() && r.identityStart != null) {
+				col.identity = new SequenceDef(null);
+				col.identity.start = r.identityStart;
+				col.identity.increment = r.identityIncrement;
+				col.identity.cache = r.identityCache;
+			}
+			table.columns.put(col.name, col);
+		});
+		return tables.values();
+	}
+
+	@Override
+	public Collection<PrimaryKeyDef> loadCurrentPrimaryKeys(Database db) throws Exception {
+		final String sql = "SELECT c.relname AS table_name, " + KEY_COLUMNS + " AS column_name, con.conname AS constraint_name " +
+				"FROM pg_constraint con " +
+				"  JOIN pg_class c ON c.oid = con.conrelid " +
+				"  JOIN pg_namespace n ON n.oid = con.connamespace " +
+				"WHERE n.nspname=? AND con.contype=? AND NOT c.relispartition";//composite keys of partitioned tables are comma-separated
+		return db.sql(sql, schema, "p").stream(PgPrimaryKey.class).map(r -> new PrimaryKeyDef(r.tableName, r.columnName, r.constraintName)).collect(toList());
+	}
+
+	@Override
+	public Collection<ForeignKeyDef> loadCurrentForeignKeys(Database db) throws Exception {
+		final String sql = "SELECT tc.table_schema, tc.constraint_name, tc.table_name, kcu.column_name, ccu.table_schema AS foreign_table_schema, ccu.table_name AS foreign_table, ccu.column_name AS foreign_column, " +
+				"  (SELECT con.convalidated FROM pg_constraint con JOIN pg_namespace cn ON cn.oid = con.connamespace WHERE cn.nspname = tc.constraint_schema AND con.conname = tc.constraint_name) AS convalidated " +
+				"FROM information_schema.table_constraints AS tc " + 
+				"  JOIN information_schema.key_column_usage AS kcu ON tc.constraint_name = kcu.constraint_name AND tc.table_schema = kcu.table_schema " + 
+				"  JOIN information_schema.constraint_column_usage AS ccu ON ccu.constraint_name = tc.constraint_name AND ccu.table_schema = tc.table_schema " + 
+				"WHERE tc.constraint_type = ? AND tc.table_schema = ? " +
+				"  AND NOT EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = tc.table_schema AND c.relname = tc.table_name AND c.relispartition)";
+		return db.sql(sql, "FOREIGN KEY", schema).stream(PgForeignKey.class).map(r -> {
+			ForeignKeyDef fk = new ForeignKeyDef(r.tableName, r.columnName, r.foreignTable, r.foreignColumn, r.constraintName);
+			fk.isValidated = r.convalidated;
+			return fk;
 		}).collect(toList());
-		for(TableDef table : tables)
-			table.columns = loadExistingColumns(db, table.name);
-		return tables;
-	}
-
-	private Map<String, ColumnDef> loadExistingColumns(Database db, String tablename) throws Exception {
-		Map<String, ColumnDef> mapCols = db.sql("SELECT * FROM information_schema.columns WHERE table_schema=? AND table_name=?", schema, tablename).
-				stream(PgColumn.class).map(r -> {
-					ColumnDef col = new ColumnDef();
-					col.name = r.name;
-					col.type = r.dataType.toLowerCase();
-					col.isNullable = r.isNullable;
-					col.isJson = "json".equalsIgnoreCase(r.dataType);
-					col.ordinal = r.ordinalPosition;
-					if (r.defaultValue != null && r.defaultValue.startsWith("nextval('") && r.defaultValue.endsWith("'::regclass)"))
-						col.sourceSequence = r.defaultValue.substring(9, r.defaultValue.length() - 12);
-					return col;
-				}).collect(toMap(cdef -> cdef.name, cdef -> cdef));
-		String[] colnames = mapCols.values().stream().sorted((c1, c2) -> (c1.ordinal < c2.ordinal ? -1 : 1)).map(c -> c.name).toArray(String[]::new);
-
-		String sql = "SELECT conname, conrelid::regclass, conkey::character varying FROM pg_constraint " +
-				"WHERE connamespace::regnamespace::character varying=? AND conrelid::regclass::character varying=? AND contype=?";
-		uniques.addAll(db.sql(sql, schema, tablename, "u").stream(PgUnique.class).map(pgu -> {
+	}
+
+	@Override
+	public Collection<UniqueDef> loadCurrentUniques(Database db) throws Exception {
+		final String sql = "SELECT con.conname, c.relname AS table_name, " + KEY_COLUMNS + " AS columns " +
+				"FROM pg_constraint con " +
+				"  JOIN pg_class c ON c.oid = con.conrelid " +
+				"  JOIN pg_namespace n ON n.oid = con.connamespace " +
+				"WHERE n.nspname=? AND con.contype=? AND NOT c.relispartition";//constraints of partitions are inherited from partitioned table
+		return db.sql(sql, schema, "u").stream(PgUnique.class).map(pgu -> {
 			UniqueDef udef = new UniqueDef();
 			udef.name = pgu.conname;
-			udef.tableName = tablename;
-			int[] ordinals = new Gson().fromJson(pgu.conkey.replace('{', '[').replace('}', ']'), int[].class);
-			udef.columns = Arrays.stream(ordinals).mapToObj(o -> colnames[o - 1]).toArray(String[]::new);
+			udef.tableName = pgu.tableName;
+			udef.columns = pgu.columns.split(",");
 			return udef;
-		}).collect(toList()));
+		}).collect(toList());
+	}
 
-		sql = "SELECT conname, conrelid::regclass, connamespace::regnamespace, conkey::character varying, consrc FROM pg_constraint " +
-				"WHERE connamespace::regnamespace::character varying=? AND conrelid::regclass::character varying=? AND contype=?";
-		checks.addAll(db.sql(sql, schema, tablename, "c").stream(PgCheck.class).map(pgc -> {
-			int[] ordinals = new Gson().fromJson(pgc.conkey.replace('{', '[').replace('}', ']'), int[].class);
-			CheckDef cdef = new CheckDef(pgc.conname, tablename, colnames[ordinals[0] - 1]);
+	@Override
+	public Collection<CheckDef> loadCurrentChecks(Database db) throws Exception {
+		final String sql = "SELECT con.conname, c.relname AS table_name, a.attname AS column_name, pg_get_constraintdef(con.oid) AS consrc, con.convalidated " +
+				"FROM pg_constraint con " +
+				"  JOIN pg_class c ON c.oid = con.conrelid " +
+				"  JOIN pg_namespace n ON n.oid = con.connamespace " +
+				"  LEFT JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = con.conkey[1] " +
+				"WHERE n.nspname=? AND con.contype=? AND NOT c.relispartition";
+		return db.sql(sql, schema, "c").stream(PgCheck.class).map(pgc -> {
+			CheckDef cdef = new CheckDef(pgc.conname, pgc.tableName, pgc.columnName);
+			cdef.isValidated = pgc.convalidated;
 			// Cannot use simple Scanner.findAll-method, since it is not available in Java 1.8
 			try(Scanner s = new Scanner(pgc.consrc)) {
 				String pattern = "'([a-zA-Z0-9_]+)'";
@@ -88,71 +247,314 @@ public class PgAdapter implements DatabaseAdapter {
 				cdef.validValues = builder.build().toArray(String[]::new);
 			}
 			return cdef;
-		}).collect(toList()));
-		return mapCols;
+		}).collect(toList());
 	}
 
 	@Override
-	public Collection<PrimaryKeyDef> loadCurrentPrimaryKeys(Database db) throws Exception {
-		final String sql = "SELECT tc.table_schema, tc.table_name, kc.column_name, tc.constraint_catalog db_name, tc.constraint_name" + 
-				" FROM information_schema.table_constraints tc, information_schema.key_column_usage kc" + 
-				" WHERE tc.constraint_type = ? AND tc.constraint_catalog=current_database() AND kc.table_name = tc.table_name and kc.table_schema = tc.table_schema AND kc.constraint_name = tc.constraint_name";
-		return db.sql(sql, "PRIMARY KEY").stream(PgPrimaryKey.class).map(r -> new PrimaryKeyDef(r.tableName, r.columnName, r.constraintName)).collect(toList());
+	public Collection<IndexDef> loadCurrentIndexes(Database db) throws Exception {
+		return loadIndexes(db, "n.nspname=? AND NOT c.relispartition", schema);//indexes of partitions are attached to indexes of partitioned table
+	}
+
+	private List<IndexDef> loadIndexes(Database db, String where, Object param) throws Exception {
+		final String sql = "SELECT ic.relname AS indexname, c.relname AS tablename, i.indisunique, i.indisvalid, am.amname AS method, i.indoption::text AS indoption, " +
+				INDEX_KEYS + " AS columns, " + INCLUDED_KEYS + " AS include_columns, " + OPERATOR_CLASS + " AS operator_class, " +
+				"pg_get_expr(i.indpred, i.indrelid, true) AS predicate, " + tablespaceOf("ic") + " AS tablespace " +
+				"FROM pg_index i " +
+				"  JOIN pg_class ic ON ic.oid = i.indexrelid " +
+				"  JOIN pg_am am ON am.oid = ic.relam " +
+				"  JOIN pg_class c ON c.oid = i.indrelid " +
+				"  JOIN pg_namespace n ON n.oid = c.relnamespace " +
+				"WHERE " + where;
+		return db.sql(sql, param).stream(PgIndex.class).map(pgi -> {
+			IndexDef idef = new IndexDef();
+			idef.name = pgi.indexname;
+			idef.tableName = pgi.tablename;
+			idef.isUniqueIndex = pgi.indisunique;
+			idef.isValid = pgi.indisvalid;
+			idef.columns = (pgi.columns == null ? new String[0] : pgi.columns.split(KEY_SEPARATOR));
+			idef.orders = Arrays.stream(pgi.indoption.trim().split(" ")).limit(idef.columns.length).map(Integer::parseInt).map(o -> IndexDef.order((o & 1) != 0, (o & 2) != 0)).toArray(String[]::new);
+			idef.method = pgi.method;
+			idef.operatorClass = pgi.operatorClass;
+			idef.include = (pgi.includeColumns == null ? new String[0] : pgi.includeColumns.split(KEY_SEPARATOR));
+			idef.where = pgi.predicate;
+			idef.tablespace = pgi.tablespace;
+			return idef;
+		}).filter(idef -> !idef.isUniqueIndex || !idef.isValid).collect(toList());//ignore database-created unique indexes (for pkey & chec constraints), but report failed concurrent unique builds
 	}
 
 	@Override
-	public Collection<ForeignKeyDef> loadCurrentForeignKeys(Database db) throws Exception {
-		final String sql = "SELECT tc.table_schema, tc.constraint_name, tc.table_name, kcu.column_name, ccu.table_schema AS foreign_table_schema, ccu.table_name AS foreign_table, ccu.column_name AS foreign_column " + 
-				"FROM information_schema.table_constraints AS tc " + 
-				"  JOIN information_schema.key_column_usage AS kcu ON tc.constraint_name = kcu.constraint_name AND tc.table_schema = kcu.table_schema " + 
-				"  JOIN information_schema.constraint_column_usage AS ccu ON ccu.constraint_name = tc.constraint_name AND ccu.table_schema = tc.table_schema " + 
-				"WHERE tc.constraint_type = ?";
-		return db.sql(sql, "FOREIGN KEY").stream(PgForeignKey.class).map(r -> new ForeignKeyDef(r.tableName, r.columnName, r.foreignTable, r.foreignColumn, r.constraintName)).collect(toList());
+	public List<IndexDef> canonicalIndexes(Database db, String table, List<IndexDef> indexes) throws Exception {
+		try {
+			return db.transaction((tdb, connection) -> {//probe table and its indexes are dropped on commit
+				List<IndexDef> copies = new ArrayList<>();
+				try(Statement stmt = connection.createStatement()) {
+					stmt.execute("CREATE TEMP TABLE " + PROBE_TABLE + " (LIKE \"" + table + "\") ON COMMIT DROP");
+					for(int i = 0; i < indexes.size(); i++) {
+						IndexDef probe = indexes.get(i).copy();
+						probe.tableName = PROBE_TABLE;
+						probe.tablespace = null;
+						Savepoint savepoint = connection.setSavepoint();
+						try {
+							stmt.execute("CREATE INDEX " + PROBE_TABLE + "_" + i + " ON " + indexDefinition(probe));
+							copies.add(indexes.get(i).copy());
+						}
+						catch(SQLException e) {
+							connection.rollback(savepoint);
+							copies.add(null);
+						}
+					}
+				}
+				Map<String, IndexDef> printed = loadIndexes(tdb, "i.indrelid = ?::regclass", "pg_temp." + PROBE_TABLE).stream().collect(toMap(idef -> idef.name, idef -> idef));
+				for(int i = 0; i < copies.size(); i++)
+					if (copies.get(i) != null) {
+						IndexDef idef = printed.get(PROBE_TABLE + "_" + i);
+						copies.get(i).columns = idef.columns;
+						copies.get(i).where = idef.where;
+					}
+				return copies;
+			});
+		}
+		catch(Exception e) {
+			if (isUndefinedTable(e))
+				return Collections.emptyList();
+			throw e;
+		}
 	}
 
 	@Override
-	public Collection<UniqueDef> loadCurrentUniques(Database db) throws Exception {
-		return uniques;
+	public Collection<EnumTypeDef> loadCurrentEnumTypes(Database db) throws Exception {
+		final String sql = "SELECT t.typname AS type_name, e.enumlabel AS label, " +
+				"  EXISTS(SELECT 1 FROM pg_depend d WHERE d.refclassid = 'pg_type'::regclass AND d.refobjid IN (t.oid, t.typarray) AND d.deptype = 'n' " +
+				"    AND NOT (d.classid = 'pg_class'::regclass AND d.objsubid > 0 AND d.objid IN (SELECT c.oid FROM pg_class c WHERE c.relnamespace = n.oid AND c.relkind IN ('r', 'p')))) AS has_other_dependents " +
+				"FROM pg_type t " +
+				"  JOIN pg_namespace n ON n.oid = t.typnamespace " +
+				"  JOIN pg_enum e ON e.enumtypid = t.oid " +
+				"WHERE n.nspname=? " +
+				"ORDER BY t.typname, e.enumsortorder";
+		Map<String, EnumTypeDef> types = new LinkedHashMap<>();
+		db.sql(sql, schema).stream(PgEnumLabel.class).forEach(r -> {
+			EnumTypeDef type = types.computeIfAbsent(r.typeName, t -> new EnumTypeDef(t, new ArrayList<>()));
+			type.values.add(r.label);
+			type.hasOtherDependents = r.hasOtherDependents;
+		});
+		return types.values();
 	}
 
 	@Override
-	public Collection<CheckDef> loadCurrentChecks(Database db) throws Exception {
-		return checks;
+	public String loadModelFingerprint(Database db) throws Exception {
+		try {
+			return db.sql("SELECT name, value FROM " + METADATA_TABLE + " WHERE name=?", FINGERPRINT_KEY).stream(PgMetadata.class).map(m -> m.value).findAny().orElse(null);
+		}
+		catch(Exception e) {
+			if (isUndefinedTable(e))
+				return null;//metadata table has not been created yet
+			throw e;
+		}
+	}
+
+	private boolean isUndefinedTable(Throwable t) {
+		return hasSqlState(t, "42P01");
+	}
+
+	private boolean hasSqlState(Throwable t, String sqlState) {
+		for(; t != null; t = t.getCause())
+			if (t instanceof SQLException && sqlState.equals(((SQLException) t).getSQLState()))
+				return true;
+		return false;
 	}
 
 	@Override
-	public Collection<IndexDef> loadCurrentIndexes(Database db) throws Exception {
-		final String sql = "SELECT * FROM pg_indexes WHERE schemaname=?";
-		return db.sql(sql, schema).stream(PgIndex.class).map(pgi -> {
-			IndexDef idef = new IndexDef();
-			idef.name = pgi.indexname;
-			idef.tableName = pgi.tablename;
-			idef.isUniqueIndex = pgi.indexdef.toUpperCase().contains("CREATE UNIQUE INDEX");
-			idef.columns = pgi.indexdef.substring(pgi.indexdef.indexOf('(') + 1,pgi.indexdef.indexOf(')')).split(",");
-			return idef;
-		}).filter(idef -> !idef.isUniqueIndex).collect(toList());//ignore database-created unique indexes (for pkey & chec constraints)
+	public String setLockTimeout(long millis, boolean transactionScoped) {
+		return "SET " + (transactionScoped ? "LOCAL " : "") + "lock_timeout = " + millis;
+	}
+
+	@Override
+	public String resetLockTimeout() {
+		return "RESET lock_timeout";
+	}
+
+	@Override
+	public List<String> setMaintenanceSettings(long memoryMegabytes, int parallelWorkers, boolean transactionScoped) {
+		String set = "SET " + (transactionScoped ? "LOCAL " : "");
+		List<String> sqls = new ArrayList<>();
+		if (memoryMegabytes > 0)
+			sqls.add(set + "maintenance_work_mem = '" + memoryMegabytes + "MB'");
+		if (parallelWorkers >= 0)
+			sqls.add(set + "max_parallel_maintenance_workers = " + parallelWorkers);//PostgreSQL 11+
+		return sqls;
+	}
+
+	@Override
+	public List<String> resetMaintenanceSettings(long memoryMegabytes, int parallelWorkers) {
+		List<String> sqls = new ArrayList<>();
+		if (memoryMegabytes > 0)
+			sqls.add("RESET maintenance_work_mem");
+		if (parallelWorkers >= 0)
+			sqls.add("RESET max_parallel_maintenance_workers");
+		return sqls;
+	}
+
+	@Override
+	public String exportSnapshot() {
+		return "SELECT pg_export_snapshot()";
+	}
+
+	@Override
+	public List<String> importSnapshot(String snapshotId) {
+		return Arrays.asList("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ", "SET TRANSACTION SNAPSHOT '" + snapshotId.replace("'", "''") + "'");
+	}
+
+	@Override
+	public boolean isNonBlocking(String ddl) {
+		//concurrent index builds and constraint validations take SHARE UPDATE EXCLUSIVE lock, which does not conflict with reads or writes;
+		//index builds also wait for older transactions via locks, and a lock timeout there would leave an invalid index behind
+		return ddl.contains(" CONCURRENTLY ") || ddl.contains(" VALIDATE CONSTRAINT ");
+	}
+
+	@Override
+	public String lockLevel(DdlStatement statement) {
+		if (isNonBlocking(statement.sql))
+			return "SHARE UPDATE EXCLUSIVE";
+		switch(statement.kind) {
+		case CREATE_SEQUENCE:
+		case DROP_SEQUENCE:
+		case ALTER_SEQUENCE:
+		case CREATE_TYPE:
+		case ALTER_TYPE:
+		case DROP_TYPE:
+			return null;
+		case ADD_FOREIGN_KEY:
+			return "SHARE ROW EXCLUSIVE";//on both referencing and referenced table
+		case ALTER_TABLE_STORAGE:
+			return "SHARE UPDATE EXCLUSIVE";//fillfactor, autovacuum and toast parameters; PostgreSQL 10+
+		case CREATE_INDEX:
+			return "SHARE";
+		default:
+			return "ACCESS EXCLUSIVE";
+		}
+	}
+
+	@Override
+	public boolean isLockTimeout(Exception e) {
+		return hasSqlState(e, "55P03");//lock_not_available
+	}
+
+	@Override
+	public String loadSchemaDigest(Database db, Set<String> overrideColumns, Set<String> managedNames, Set<String> storageTables) throws Exception {
+		final String conkey1 = "(SELECT attname FROM pg_attribute WHERE attrelid = con.conrelid AND attnum = con.conkey[1])";
+		final String sql = "WITH p AS (SELECT CAST(? AS text) AS schema, string_to_array(NULLIF(CAST(? AS text), ''), ',') AS overrides, " +
+				"  string_to_array(NULLIF(CAST(? AS text), ''), ',') AS names, string_to_array(NULLIF(CAST(? AS text), ''), ',') AS storage), " +
+				"rel AS (SELECT c.oid, c.relname, c.relkind, c.relpersistence, c.reloptions, c.reltoastrelid FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace, p " +
+				"  WHERE n.nspname = p.schema AND c.relkind IN ('r', 'p', 'S') AND c.relname <> '" + METADATA_TABLE + "' AND (p.names IS NULL OR c.relname = ANY(p.names)) " +
+				"  AND NOT c.relispartition AND (c.relkind <> 'S' OR " + NOT_IDENTITY_SEQUENCE + ")), " +
+				"lines AS (" +
+				"  SELECT 's|' || r.relname || '|' || s.seqstart || '|' || s.seqincrement || '|' || s.seqcache AS line FROM rel r JOIN pg_sequence s ON s.seqrelid = r.oid WHERE r.relkind = 'S' " +
+				"  UNION ALL SELECT 't|' || relname FROM rel WHERE relkind IN ('r', 'p') " +
+				"  UNION ALL SELECT 'l|' || r.relname FROM rel r, p WHERE r.relkind IN ('r', 'p') AND r.relpersistence = 'u' AND r.relname = ANY(p.storage) " +
+				"  UNION ALL SELECT 'w|' || r.relname || '|' || o.options FROM rel r, p, LATERAL (SELECT string_agg(opt, ',' ORDER BY opt COLLATE \"C\") AS options " +
+				"      FROM (SELECT unnest(r.reloptions) AS opt UNION ALL SELECT 'toast.' || unnest(t.reloptions) FROM pg_class t WHERE t.oid = r.reltoastrelid) ro) o " +
+				"    WHERE r.relkind IN ('r', 'p') AND r.relname = ANY(p.storage) AND o.options IS NOT NULL " +
+				"  UNION ALL SELECT 'r|' || r.relname || '|' || CASE pt.partstrat WHEN 'r' THEN 'RANGE' WHEN 'l' THEN 'LIST' ELSE 'HASH' END || '|' || coalesce(a.attname, '') " +
+				"    FROM rel r JOIN pg_partitioned_table pt ON pt.partrelid = r.oid LEFT JOIN pg_attribute a ON a.attrelid = r.oid AND a.attnum = pt.partattrs[0] " +
+				"  UNION ALL SELECT 'c|' || r.relname || '|' || a.attname || CASE WHEN r.relname || '|' || a.attname = ANY(p.overrides) THEN '' ELSE " +
+				"      '|' || lower(format_type(a.atttypid, NULL)) || '|' || CASE WHEN a.attnotnull THEN '0' ELSE '1' END || '|' || " +
+				"      CASE WHEN pg_get_expr(d.adbin, d.adrelid) LIKE 'nextval(''%''::regclass)' " +
+				"        THEN substr(pg_get_expr(d.adbin, d.adrelid), 10, length(pg_get_expr(d.adbin, d.adrelid)) - 21) ELSE '' END || " +
+				"      coalesce((SELECT '|identity|' || s.seqstart || '|' || s.seqincrement || '|' || s.seqcache FROM pg_depend dep JOIN pg_sequence s ON s.seqrelid = dep.objid " +
+				"        WHERE dep.classid = 'pg_class'::regclass AND dep.refobjid = r.oid AND dep.refobjsubid = a.attnum AND dep.deptype = 'i'), '') END " +
+				"    FROM rel r JOIN pg_attribute a ON a.attrelid = r.oid LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum, p " +
+				"    WHERE r.relkind IN ('r', 'p') AND a.attnum > 0 AND NOT a.attisdropped AND (p.names IS NULL OR r.relname || '|' || a.attname = ANY(p.names)) " +
+				"  UNION ALL SELECT CASE con.contype " +
+				"      WHEN 'p' THEN 'p|' || r.relname || '|' || " + KEY_COLUMNS + " " +
+				"      WHEN 'f' THEN 'f|' || r.relname || '|' || " + conkey1 + " || '|' || fr.relname || '|' || " +
+				"        (SELECT attname FROM pg_attribute WHERE attrelid = con.confrelid AND attnum = con.confkey[1]) " +
+				"      WHEN 'u' THEN 'u|' || r.relname || '|' || " + KEY_COLUMNS + " " +
+				"      ELSE 'k|' || r.relname || '|' || coalesce(" + conkey1 + ", '') || '|' || coalesce((SELECT string_agg(m[1], ',' ORDER BY ord) " +
+				"        FROM regexp_matches(pg_get_constraintdef(con.oid), '''([a-zA-Z0-9_]+)''', 'g') WITH ORDINALITY v(m, ord)), '') END " +
+				"    FROM rel r JOIN pg_constraint con ON con.conrelid = r.oid LEFT JOIN pg_class fr ON fr.oid = con.confrelid " +
+				"    WHERE con.contype IN ('p', 'f', 'u', 'c') " +
+				"  UNION ALL SELECT 'n|' || r.relname || '|' || con.conname FROM rel r JOIN pg_constraint con ON con.conrelid = r.oid WHERE NOT con.convalidated " +//model has no unvalidated constraints
+				"  UNION ALL SELECT 'i|' || r.relname || '|' || (SELECT string_agg(" + normalized("pg_get_indexdef(i.indexrelid, k.n, true)") + " || " + KEY_ORDER + ", ',' ORDER BY k.n) " +
+				"      FROM generate_series(1, i.indnkeyatts) k(n)) || '|' || am.amname || coalesce(' ' || " + OPERATOR_CLASS + ", '') || '|' || " +
+				"      coalesce((SELECT string_agg(" + normalized("pg_get_indexdef(i.indexrelid, k.n, true)") + ", ',' ORDER BY k.n) FROM generate_series(i.indnkeyatts + 1, i.indnatts) k(n)), '') || '|' || " +
+				"      coalesce(" + normalized("pg_get_expr(i.indpred, i.indrelid, true)") + ", '') " +
+				"    FROM rel r JOIN pg_index i ON i.indrelid = r.oid JOIN pg_class ic ON ic.oid = i.indexrelid JOIN pg_am am ON am.oid = ic.relam WHERE NOT i.indisunique" +
+				"  UNION ALL SELECT 'e|' || t.typname || '|' || (SELECT string_agg(e.enumlabel, ',' ORDER BY e.enumsortorder) FROM pg_enum e WHERE e.enumtypid = t.oid) " +
+				"    FROM pg_type t WHERE t.typtype = 'e' AND t.oid IN (SELECT a.atttypid FROM rel r JOIN pg_attribute a ON a.attrelid = r.oid, p " +
+				"      WHERE r.relkind IN ('r', 'p') AND a.attnum > 0 AND NOT a.attisdropped AND NOT coalesce(r.relname || '|' || a.attname = ANY(p.overrides), false) " +
+				"      AND (p.names IS NULL OR r.relname || '|' || a.attname = ANY(p.names)))" +//only enumerated types of managed columns
+				") " +
+				"SELECT md5(coalesce(string_agg(line, E'\\n' ORDER BY line COLLATE \"C\"), '')) AS digest FROM lines";
+		String overrides = overrideColumns.stream().collect(joining(","));
+		String names = (managedNames == null ? "" : managedNames.stream().collect(joining(",")));
+		return db.sql(sql, schema, overrides, names, storageTables.stream().collect(joining(","))).stream(PgDigest.class).map(d -> d.digest).findAny().orElse(null);
+	}
+
+	@Override
+	public String storeModelFingerprint(String fingerprint) {
+		return "CREATE TABLE IF NOT EXISTS " + METADATA_TABLE + "(name character varying PRIMARY KEY, value character varying, updated timestamp with time zone);" + ENDL +
+				"INSERT INTO " + METADATA_TABLE + "(name, value, updated) VALUES ('" + FINGERPRINT_KEY + "', '" + fingerprint + "', now()) " +
+				"ON CONFLICT (name) DO UPDATE SET value=EXCLUDED.value, updated=EXCLUDED.updated;" + ENDL;
 	}
 
 	@Override
 	public String createTableWithColumns(TableDef tableDef) {
 		String columns = tableDef.columnOrder.stream().map(cname -> tableDef.columns.get(cname)).map(coldef -> getColumnDefinition(coldef)).collect(joining("," + ENDL + "  "));
-		return "CREATE TABLE \"" + tableDef.name + "\"(" + ENDL + "  " + columns + ENDL + ");" + ENDL;
+		String partitioning = (tableDef.partitioning == null ? "" : " PARTITION BY " + tableDef.partitioning.method + " (\"" + tableDef.partitioning.column + "\")");
+		String storage = (tableDef.storageParameters == null || tableDef.storageParameters.isEmpty() ? "" : " WITH (" + storageParameters(tableDef.storageParameters) + ")");
+		String tablespace = (tableDef.tablespace == null ? "" : " TABLESPACE \"" + tableDef.tablespace + "\"");
+		return "CREATE " + (tableDef.isUnlogged ? "UNLOGGED " : "") + "TABLE \"" + tableDef.name + "\"(" + ENDL + "  " + columns + ENDL + ")" + partitioning + storage + tablespace;
+	}
+
+	@Override
+	public String alterPersistence(String tableName, boolean unlogged) {
+		return "ALTER TABLE \"" + tableName + "\" SET " + (unlogged ? "UNLOGGED" : "LOGGED");
+	}
+
+	@Override
+	public String alterTableTablespace(String tableName, String tablespace) {
+		return "ALTER TABLE \"" + tableName + "\" SET TABLESPACE \"" + tablespace + "\"";
+	}
+
+	@Override
+	public String alterIndexTablespace(IndexDef indexDef, String tablespace) {
+		return "ALTER INDEX \"" + indexDef.name + "\" SET TABLESPACE \"" + tablespace + "\"";
+	}
+
+	private String storageParameters(Map<String, String> parameters) {
+		return parameters.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(joining(", "));
+	}
+
+	@Override
+	public String alterStorageParameters(String tableName, Map<String, String> set, Collection<String> reset) {
+		List<String> actions = new ArrayList<>();
+		if (!set.isEmpty())
+			actions.add("SET (" + storageParameters(set) + ")");
+		if (!reset.isEmpty())
+			actions.add("RESET (" + reset.stream().collect(joining(", ")) + ")");
+		return "ALTER TABLE \"" + tableName + "\" " + actions.stream().collect(joining(", "));
+	}
+
+	@Override
+	public String createPartition(String tableName, String partitionName, String bounds) {
+		return "CREATE TABLE \"" + partitionName + "\" PARTITION OF \"" + tableName + "\" " + ("DEFAULT".equalsIgnoreCase(bounds.trim()) ? "DEFAULT" : "FOR VALUES " + bounds);
 	}
 
 	public String getColumnDefinition(ColumnDef cdef) {
 		if (cdef.columnDefinitionOverride != null)
 			return "\"" + cdef.name + "\" " + cdef.columnDefinitionOverride;
-		return "\"" + cdef.name + "\" " + cdef.type + (cdef.isNullable ? "" : " NOT NULL") + (cdef.sourceSequence == null ? "" : " " + "DEFAULT nextval('" + cdef.sourceSequence + "'::regclass)");
+		String identity = (cdef.identity == null ? "" : " GENERATED BY DEFAULT AS IDENTITY (" + identityOptions(cdef.identity) + ")");
+		return "\"" + cdef.name + "\" " + cdef.type + (cdef.isNullable ? "" : " NOT NULL") + (cdef.sourceSequence == null ? "" : " " + "DEFAULT nextval('" + cdef.sourceSequence + "'::regclass)") + identity;
 	}
 
 	@Override
 	public String addColumn(String tableName, ColumnDef column) {
-		return "ALTER TABLE \"" + tableName + "\" ADD COLUMN " + getColumnDefinition(column) + ";" + ENDL;
+		return "ALTER TABLE \"" + tableName + "\" ADD COLUMN " + getColumnDefinition(column);
 	}
 
 	@Override
 	public String dropColumn(String tableName, String colname) {
-		return "ALTER TABLE \"" + tableName + "\" DROP COLUMN \"" + colname + "\";" + ENDL;
+		return "ALTER TABLE \"" + tableName + "\" DROP COLUMN \"" + colname + "\"";
 	}
 
 	@Override
@@ -181,97 +583,276 @@ public class PgAdapter implements DatabaseAdapter {
 		return "json";
 	}
 
+	@Override
+	public String sqlTypeForBinaryJSon() {
+		return "jsonb";
+	}
+
 	@Override
 	public String getDefaultSequenceName(String tablename, String columnName) {
 		return tablename + "_" + columnName + "_seq";
 	}
 
 	@Override
-	public Object createSequence(String sequenceName) {
-		return "CREATE SEQUENCE " + sequenceName + " INCREMENT 1 MINVALUE 1 MAXVALUE 9223372036854775807 START 1 CACHE 1;" + ENDL;
+	public String createSequence(SequenceDef sequenceDef) {
+		return "CREATE SEQUENCE " + sequenceDef.name + " INCREMENT " + sequenceDef.increment + " MINVALUE " + sequenceDef.minValue() + " MAXVALUE 9223372036854775807 START " + sequenceDef.start + " CACHE " + sequenceDef.cache;
+	}
+
+	@Override
+	public String alterSequence(SequenceDef sequenceDef) {
+		return "ALTER SEQUENCE " + sequenceDef.name + " INCREMENT " + sequenceDef.increment + " MINVALUE " + sequenceDef.minValue() + " START " + sequenceDef.start + " CACHE " + sequenceDef.cache;//START only affects RESTART
+	}
+
+	@Override
+	public String renameSequence(String oldName, String newName) {
+		return "ALTER SEQUENCE " + oldName + " RENAME TO " + newName;
 	}
 
 	@Override
 	public Object dropSequence(String sequenceName) {
-		return "DROP SEQUENCE IF EXISTS " + sequenceName + " CASCADE;" + ENDL;//sometimes, sequence is already cascade-dropped with related table 
+		return "DROP SEQUENCE IF EXISTS " + sequenceName + " CASCADE";//sometimes, sequence is already cascade-dropped with related table 
 	}
 
 	@Override
 	public String dropTable(String tablename) {
-		return "DROP TABLE \"" + tablename + "\" CASCADE;" + ENDL;
+		return "DROP TABLE \"" + tablename + "\" CASCADE";
 	}
 
 	@Override
 	public boolean supportsIdentityStrategy() {
-		return false;
+		return true;//PostgreSQL 10+
 	}
 
 	@Override
 	public String dropPrimaryKey(String tableName, String columnName, String constraintName) {
-		return "ALTER TABLE \"" + tableName + "\" DROP CONSTRAINT " + constraintName + ";" +ENDL;
+		return "ALTER TABLE \"" + tableName + "\" DROP CONSTRAINT " + constraintName;
 	}
 
 	@Override
 	public String addPrimaryKey(String tableName, String columnName) {
-		return "ALTER TABLE \"" + tableName + "\" ADD PRIMARY KEY (\"" + columnName + "\");" + ENDL;
+		return "ALTER TABLE \"" + tableName + "\" ADD PRIMARY KEY (" + Arrays.stream(columnName.split(",")).map(c -> "\"" + c + "\"").collect(joining(", ")) + ")";
 	}
 
 	@Override
 	public String dropForeignKey(String localTable, String localColumn, String constraintName) {
-		return "ALTER TABLE \"" + localTable + "\" DROP CONSTRAINT \"" + constraintName + "\";" + ENDL;
+		return "ALTER TABLE \"" + localTable + "\" DROP CONSTRAINT \"" + constraintName + "\"";
 	}
 
 	@Override
 	public String createForeignKey(ForeignKeyDef foreignKeyDef) {
 		return "ALTER TABLE \"" + foreignKeyDef.localTable + "\" ADD FOREIGN KEY (\"" + foreignKeyDef.localColumn +
-				"\") REFERENCES \"" + foreignKeyDef.foreignTable + "\"(\""+ foreignKeyDef.foreignColumn + "\") ON DELETE CASCADE;" + ENDL;
+				"\") REFERENCES \"" + foreignKeyDef.foreignTable + "\"(\""+ foreignKeyDef.foreignColumn + "\") ON DELETE CASCADE";
+	}
+
+	@Override
+	public String createForeignKeyNotValid(ForeignKeyDef foreignKeyDef) {
+		return "ALTER TABLE \"" + foreignKeyDef.localTable + "\" ADD CONSTRAINT " + foreignKeyName(foreignKeyDef) + " FOREIGN KEY (\"" + foreignKeyDef.localColumn +
+				"\") REFERENCES \"" + foreignKeyDef.foreignTable + "\"(\""+ foreignKeyDef.foreignColumn + "\") ON DELETE CASCADE NOT VALID";
+	}
+
+	@Override
+	public String validateForeignKey(ForeignKeyDef foreignKeyDef) {
+		return "ALTER TABLE \"" + foreignKeyDef.localTable + "\" VALIDATE CONSTRAINT " + (foreignKeyDef.constraintName == null ? foreignKeyName(foreignKeyDef) : "\"" + foreignKeyDef.constraintName + "\"");
+	}
+
+	private String foreignKeyName(ForeignKeyDef foreignKeyDef) {
+		return "\"" + foreignKeyDef.localTable + "_" + foreignKeyDef.localColumn + "_fkey\"";
 	}
 
 	@Override
 	public String createUnique(UniqueDef u) {
 		String cname = u.tableName + "_" + Arrays.stream(u.columns).collect(joining("_"));
 		return "ALTER TABLE \"" + u.tableName + "\" ADD CONSTRAINT " + cname +
-				" UNIQUE (" + Arrays.stream(u.columns).map(c -> "\"" + c + "\"").collect(joining(", ")) + ");" + ENDL;
+				" UNIQUE (" + Arrays.stream(u.columns).map(c -> "\"" + c + "\"").collect(joining(", ")) + ")";
+	}
+
+	@Override
+	public List<String> createUniqueConcurrently(UniqueDef u) {
+		String cname = u.tableName + "_" + Arrays.stream(u.columns).collect(joining("_"));
+		return Arrays.asList(
+				"CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + cname + " ON \"" + u.tableName + "\" (" + Arrays.stream(u.columns).map(c -> "\"" + c + "\"").collect(joining(", ")) + ")",//index left over from a run that failed before attaching is reused
+				"ALTER TABLE \"" + u.tableName + "\" ADD CONSTRAINT " + cname + " UNIQUE USING INDEX " + cname);
 	}
 
 	@Override
 	public String dropUnique(UniqueDef u) {
-		return "ALTER TABLE \"" + u.tableName + "\" DROP CONSTRAINT " + u.name + ";" + ENDL;
+		return "ALTER TABLE \"" + u.tableName + "\" DROP CONSTRAINT " + u.name;
+	}
+
+	@Override
+	public String enumTypeName(Class<?> enumClass) {
+		//nested enums are prefixed with their outer classes, which also avoids clashes with built-in types like "name"
+		String name = enumClass.getName().substring(enumClass.getName().lastIndexOf('.') + 1).replace('$', '_');
+		return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+	}
+
+	@Override
+	public String createEnumType(EnumTypeDef enumTypeDef) {
+		return "CREATE TYPE " + enumTypeDef.name + " AS ENUM (" + enumTypeDef.values.stream().map(v -> "'" + v + "'").collect(joining(", ")) + ")";
+	}
+
+	@Override
+	public String addEnumValue(String typeName, String value, String before, String after) {
+		String position = (before != null ? " BEFORE '" + before + "'" : after != null ? " AFTER '" + after + "'" : "");
+		return "ALTER TYPE " + typeName + " ADD VALUE IF NOT EXISTS '" + value + "'" + position;//PostgreSQL 9.6+; cannot run in a transaction block before PostgreSQL 12
+	}
+
+	@Override
+	public String dropEnumType(String typeName) {
+		return "DROP TYPE IF EXISTS " + typeName;
 	}
 
 	@Override
 	public String createCheck(CheckDef checkDef) {
 		String vals = Arrays.stream(checkDef.validValues).map(v -> "'" + v + "'").collect(joining(","));
-		return "ALTER TABLE \"" + checkDef.tableName + "\" ADD CHECK (\"" + checkDef.columnName + "\" IN (" + vals + "));" + ENDL;
+		return "ALTER TABLE \"" + checkDef.tableName + "\" ADD CHECK (\"" + checkDef.columnName + "\" IN (" + vals + "))";
+	}
+
+	@Override
+	public String createCheckNotValid(CheckDef checkDef) {
+		String vals = Arrays.stream(checkDef.validValues).map(v -> "'" + v + "'").collect(joining(","));
+		return "ALTER TABLE \"" + checkDef.tableName + "\" ADD CONSTRAINT " + checkName(checkDef) + " CHECK (\"" + checkDef.columnName + "\" IN (" + vals + ")) NOT VALID";
+	}
+
+	@Override
+	public String validateCheck(CheckDef checkDef) {
+		return "ALTER TABLE \"" + checkDef.tableName + "\" VALIDATE CONSTRAINT " + (checkDef.name == null ? checkName(checkDef) : "\"" + checkDef.name + "\"");
+	}
+
+	private String checkName(CheckDef checkDef) {
+		return "\"" + checkDef.tableName + "_" + checkDef.columnName + "_check\"";
 	}
 
 	@Override
 	public String dropCheck(CheckDef checkDef) {
-		return "ALTER TABLE \"" + checkDef.tableName + "\" DROP CONSTRAINT " + checkDef.name + ";" + ENDL;
+		return "ALTER TABLE \"" + checkDef.tableName + "\" DROP CONSTRAINT " + checkDef.name;
+	}
+
+	/**
+	 * @param pgClass alias of pg_class
+	 * @return SQL expression for tablespace name of the relation; default tablespace of the database is reported by its name
+	 */
+	private static String tablespaceOf(String pgClass) {
+		return "(SELECT spcname FROM pg_tablespace WHERE oid = CASE WHEN " + pgClass + ".reltablespace = 0 " +
+				"THEN (SELECT dattablespace FROM pg_database WHERE datname = current_database()) ELSE " + pgClass + ".reltablespace END)";
+	}
+
+	/**
+	 * @param pgClass alias of pg_class
+	 * @param size relpages or reltuples
+	 * @return SQL expression for size of the relation; size of partitioned table is the sum of its partitions at all levels
+	 */
+	private static String sizeOf(String pgClass, String size) {
+		return "CASE WHEN " + pgClass + ".relkind = 'p' THEN (WITH RECURSIVE tree(oid) AS (SELECT inhrelid FROM pg_inherits WHERE inhparent = " + pgClass + ".oid " +
+				"UNION ALL SELECT i.inhrelid FROM pg_inherits i JOIN tree ON i.inhparent = tree.oid) " +
+				"SELECT coalesce(sum(greatest(p." + size + ", 0)), 0) FROM tree JOIN pg_class p ON p.oid = tree.oid)::bigint ELSE " + pgClass + "." + size + "::bigint END";
+	}
+
+	/**
+	 * @return SQL expression, which computes IndexDef.normalize of given expression
+	 */
+	private static String normalized(String expression) {
+		String code = "regexp_replace(regexp_replace(replace(lower(u.part), '\"', ''), '\\s+', ' ', 'g'), '" + IndexDef.INSIGNIFICANT_SPACE + "', '', 'g')";
+		return "(SELECT string_agg(CASE WHEN u.n % 2 = 1 THEN " + code + " ELSE u.part END, '''' ORDER BY u.n) " +//odd parts are outside of string literals
+				"FROM unnest(string_to_array(" + expression + ", '''')) WITH ORDINALITY u(part, n))";
 	}
 
 	@Override
 	public String createIndex(IndexDef indexDef) {
-		return "CREATE INDEX ON \"" + indexDef.tableName + "\" (" + Arrays.stream(indexDef.columns).map(c -> "\"" + c + "\"").collect(joining(", ")) + ");" + ENDL;
+		return "CREATE INDEX ON " + indexDefinition(indexDef);
+	}
+
+	/**
+	 * @return table, access method, keys, included columns and predicate of CREATE INDEX statement
+	 */
+	private String indexDefinition(IndexDef indexDef) {
+		String keys = IntStream.range(0, indexDef.columns.length).mapToObj(i -> {
+			String key = indexDef.columns[i];
+			String order = (indexDef.orders == null || indexDef.orders[i].isEmpty() ? "" : " " + indexDef.orders[i]);
+			return (IndexDef.isColumn(key) ? "\"" + key + "\"" : "(" + key + ")") + (indexDef.operatorClass == null ? "" : " " + indexDef.operatorClass) + order;
+		}).collect(joining(", "));
+		String include = (indexDef.include.length == 0 ? "" : " INCLUDE (" + Arrays.stream(indexDef.include).map(c -> "\"" + c + "\"").collect(joining(", ")) + ")");
+		return "\"" + indexDef.tableName + "\" " + ("btree".equals(indexDef.method) ? "" : "USING " + indexDef.method + " ") + "(" + keys + ")" + include +
+				(indexDef.tablespace == null ? "" : " TABLESPACE \"" + indexDef.tablespace + "\"") + (indexDef.where == null ? "" : " WHERE " + indexDef.where);
 	}
 
 	@Override
 	public String dropIndex(IndexDef indexDef) {
-		return "DROP INDEX IF EXISTS " + indexDef.name + ";" + ENDL;
+		return "DROP INDEX IF EXISTS " + indexDef.name;
+	}
+
+	@Override
+	public String createIndexConcurrently(IndexDef indexDef) {
+		return "CREATE INDEX CONCURRENTLY ON " + indexDefinition(indexDef);
+	}
+
+	@Override
+	public String dropIndexConcurrently(IndexDef indexDef) {
+		return "DROP INDEX CONCURRENTLY IF EXISTS " + indexDef.name;
 	}
 
 	@Override
-	public String alterColumnType(String tableName, String columnName, String sqlType) {
-		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" TYPE " + sqlType + ";" + ENDL;
+	public TypeChange classifyTypeChange(String fromType, String toType) {
+		if (fromType.equals(toType) || BINARY_COERCIBLE.contains(fromType + "|" + toType))
+			return TypeChange.BINARY_COERCIBLE;
+		if (STRING_TYPES.contains(fromType) || STRING_TYPES.contains(toType))//any type has text input/output conversion
+			return TypeChange.REWRITE;
+		if (CASTABLE_GROUPS.stream().anyMatch(g -> g.contains(fromType) && g.contains(toType)))
+			return TypeChange.REWRITE;
+		return TypeChange.NOT_CASTABLE;
+	}
+
+	@Override
+	public String alterColumnType(String tableName, String columnName, String fromType, String sqlType) {
+		String using = (classifyTypeChange(fromType, sqlType) == TypeChange.REWRITE ? " USING \"" + columnName + "\"::" + sqlType : "");//explicit cast, since some conversions have no assignment cast
+		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" TYPE " + sqlType + using;
 	}
 
 	@Override
 	public String alterColumnNullability(String tableName, String columnName, boolean isNullable) {
-		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + (isNullable ? "\" DROP NOT NULL;" : "\" SET NOT NULL;") + ENDL;
+		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + (isNullable ? "\" DROP NOT NULL" : "\" SET NOT NULL");
+	}
+
+	@Override
+	public List<String> setNotNullOnline(String tableName, String columnName) {
+		String cname = "\"" + tableName + "_" + columnName + "_not_null\"";
+		String table = "ALTER TABLE \"" + tableName + "\" ";
+		return Arrays.asList(
+				table + "DROP CONSTRAINT IF EXISTS " + cname + ", ADD CONSTRAINT " + cname + " CHECK (\"" + columnName + "\" IS NOT NULL) NOT VALID",//any leftover from a failed run is replaced
+				table + "VALIDATE CONSTRAINT " + cname,
+				table + "ALTER COLUMN \"" + columnName + "\" SET NOT NULL",
+				table + "DROP CONSTRAINT " + cname);
 	}
 
 	@Override
 	public String alterColumnDefaultValue(String tableName, String columnName, String sourceSequence) {
-		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" SET DEFAULT " + (sourceSequence == null ? "null" : " " + "nextval('" + sourceSequence + "'::regclass)") + ";" + ENDL;
+		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" SET DEFAULT " + (sourceSequence == null ? "null" : " " + "nextval('" + sourceSequence + "'::regclass)");
+	}
+
+	@Override
+	public List<String> addIdentity(String tableName, String columnName, SequenceDef identity, String previousSequence) {
+		List<String> sqls = new ArrayList<>();
+		sqls.add("ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" ADD GENERATED BY DEFAULT AS IDENTITY (" + identityOptions(identity) + ")");
+		if (previousSequence != null)//existing table is locked by now, so previous sequence cannot advance any more
+			sqls.add("DO $$BEGIN PERFORM setval(pg_get_serial_sequence('\"" + tableName + "\"', '" + columnName + "'), nextval('" + previousSequence + "'), false); END$$");
+		return sqls;
+	}
+
+	@Override
+	public String alterIdentity(String tableName, String columnName, SequenceDef identity) {
+		return "ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" SET START WITH " + identity.start + " SET INCREMENT BY " + identity.increment + " SET CACHE " + identity.cache;
+	}
+
+	@Override
+	public List<String> dropIdentity(String tableName, String columnName, String nextSequence) {
+		List<String> sqls = new ArrayList<>();
+		if (nextSequence != null)
+			sqls.add("DO $$BEGIN PERFORM setval('" + nextSequence + "', nextval(pg_get_serial_sequence('\"" + tableName + "\"', '" + columnName + "')), false); END$$");
+		sqls.add("ALTER TABLE \"" + tableName + "\" ALTER COLUMN \"" + columnName + "\" DROP IDENTITY IF EXISTS");
+		return sqls;
+	}
+
+	private String identityOptions(SequenceDef identity) {
+		return "START WITH " + identity.start + " INCREMENT BY " + identity.increment + " CACHE " + identity.cache;
 	}
 }
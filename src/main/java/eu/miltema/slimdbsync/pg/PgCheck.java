@@ -2,6 +2,8 @@ package eu.miltema.slimdbsync.pg;
 
 public class PgCheck {
 	String conname;
-	String conkey;
+	String tableName;
+	String columnName;
 	String consrc;
+	boolean convalidated;
 }
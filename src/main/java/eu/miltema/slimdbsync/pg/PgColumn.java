@@ -4,6 +4,8 @@ import javax.persistence.Column;
 
 public class PgColumn {
 
+	String tableName;
+
 	@Column(name = "column_name")
 	String name;
 
@@ -15,4 +17,16 @@ public class PgColumn {
 	public String defaultValue;
 
 	public int ordinalPosition;
+
+	long relpages;
+
+	long reltuples;
+
+	String attidentity;//'d' for GENERATED BY DEFAULT, 'a' for GENERATED ALWAYS, '' for ordinary columns
+
+	Long identityStart;
+
+	Long identityIncrement;
+
+	Long identityCache;
 }
@@ -0,0 +1,5 @@
+package eu.miltema.slimdbsync.pg;
+
+public class PgDigest {
+	String digest;
+}
@@ -0,0 +1,7 @@
+package eu.miltema.slimdbsync.pg;
+
+public class PgEnumLabel {
+	String typeName;
+	String label;
+	boolean hasOtherDependents;
+}
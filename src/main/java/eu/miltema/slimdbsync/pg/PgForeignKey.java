@@ -6,4 +6,5 @@ public class PgForeignKey {
 	String columnName;
 	String foreignTable;
 	String foreignColumn;
+	boolean convalidated;
 }
@@ -1,8 +1,15 @@
 package eu.miltema.slimdbsync.pg;
 
 public class PgIndex {
-	public String schemaname;
 	public String tablename;
 	public String indexname;
-	public String indexdef;
+	public String columns;
+	public String indoption;
+	public String method;
+	public String operatorClass;
+	public String includeColumns;
+	public String predicate;
+	public String tablespace;
+	public boolean indisunique;
+	public boolean indisvalid;
 }
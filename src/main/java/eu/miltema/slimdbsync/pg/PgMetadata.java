@@ -0,0 +1,6 @@
+package eu.miltema.slimdbsync.pg;
+
+public class PgMetadata {
+	String name;
+	String value;
+}
@@ -0,0 +1,9 @@
+package eu.miltema.slimdbsync.pg;
+
+public class PgPartition {
+	String tableName;
+	String strategy;
+	String columnName;
+	String partitionName;
+	String bounds;
+}
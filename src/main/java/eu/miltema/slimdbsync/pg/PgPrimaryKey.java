@@ -1,9 +1,7 @@
 package eu.miltema.slimdbsync.pg;
 
 public class PgPrimaryKey {
-	String tableSchema;
 	String tableName;
 	String columnName;
 	String constraintName;
-	String dbName;
 }
@@ -1,8 +1,8 @@
 package eu.miltema.slimdbsync.pg;
 
-import javax.persistence.Table;
-
-@Table(name = "information_schema.sequences")
 public class PgSequence {
-	String sequenceName;
+	String sequencename;
+	long startValue;
+	long incrementBy;
+	long cacheSize;
 }
@@ -1,8 +1,9 @@
 package eu.miltema.slimdbsync.pg;
 
-import javax.persistence.Table;
-
-@Table(name = "pg_tables")
 public class PgTable {
 	String tablename;
+	String options;
+	String toastOptions;
+	String relpersistence;
+	String tablespace;
 }
@@ -2,5 +2,6 @@ package eu.miltema.slimdbsync.pg;
 
 public class PgUnique {
 	String conname;
-	String conkey;
+	String tableName;
+	String columns;
 }
@@ -0,0 +1,13 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+
+@Table(name = "entity1")
+public class Entity1Generator {
+
+	@Id
+	@GeneratedValue(generator = "entity1_gen")
+	@SequenceGenerator(name = "entity1_gen", sequenceName = "entity1_ids", initialValue = 0)
+	public Integer id;
+	public String name;
+}
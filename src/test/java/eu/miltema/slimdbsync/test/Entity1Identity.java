@@ -0,0 +1,14 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.Sequence;
+
+@Table(name = "entity1")
+public class Entity1Identity {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Sequence(cache = 20)
+	public Integer id;
+	public String name;
+}
@@ -0,0 +1,14 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.Sequence;
+
+@Table(name = "entity1")
+public class Entity1Sequence {
+
+	@Id
+	@GeneratedValue
+	@Sequence(cache = 20)
+	public Integer id;
+	public String name;
+}
@@ -0,0 +1,14 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.TableStorage;
+
+@Table(name = "entity1")
+@TableStorage(parameters = {"fillfactor=70", "toast.autovacuum_enabled=false"})
+public class Entity1Storage {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	public String name;
+}
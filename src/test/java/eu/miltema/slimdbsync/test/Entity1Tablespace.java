@@ -0,0 +1,15 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.*;
+
+@Table(name = "entity1")
+@TableStorage(tablespace = "slimtest_space")
+@Indexes(@Index(value = "name", tablespace = "slimtest_space"))
+public class Entity1Tablespace {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	public String name;
+}
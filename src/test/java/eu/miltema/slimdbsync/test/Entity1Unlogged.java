@@ -0,0 +1,15 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.*;
+
+@Table(name = "entity1")
+@TableStorage(unlogged = true, tablespace = "pg_default")
+@Indexes(@Index(value = "name", tablespace = "pg_default"))
+public class Entity1Unlogged {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	public String name;
+}
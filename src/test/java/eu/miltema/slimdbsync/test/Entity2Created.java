@@ -0,0 +1,20 @@
+package eu.miltema.slimdbsync.test;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import eu.miltema.slimdbsync.*;
+
+@Indexes({@Index("created"), @Index("created::date")})
+@Table(name = "entity2")
+public class Entity2Created {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "id_seq2")
+	public Integer id;
+	public String name;
+	public Integer count2;
+	public LocalDateTime created;
+
+}
@@ -0,0 +1,20 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+
+import eu.miltema.slimdbsync.*;
+
+@Indexes({
+	@Index(value = "id", method = IndexMethod.BRIN),
+	@Index(value = {"lower(name)", "count2 DESC NULLS LAST"}, where = "count2 > 0"),
+	@Index(value = "name", include = "count2")})
+@Table(name = "entity2")
+public class Entity2IndexOptions {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "id_seq2")
+	public Integer id;
+	public String name;
+	public Integer count2;
+
+}
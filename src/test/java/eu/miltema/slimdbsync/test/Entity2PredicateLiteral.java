@@ -0,0 +1,17 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+
+import eu.miltema.slimdbsync.*;
+
+@Indexes(@Index(value = "name", where = "name = 'active' OR count2 > 0 AND id > 0"))
+@Table(name = "entity2")
+public class Entity2PredicateLiteral {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "id_seq2")
+	public Integer id;
+	public String name;
+	public Integer count2;
+
+}
@@ -0,0 +1,17 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+
+import eu.miltema.slimdbsync.*;
+
+@Indexes(@Index(value = "name", where = "name IN ('a', 'b') AND count2 BETWEEN 1 AND 2"))
+@Table(name = "entity2")
+public class Entity2PredicateRange {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "id_seq2")
+	public Integer id;
+	public String name;
+	public Integer count2;
+
+}
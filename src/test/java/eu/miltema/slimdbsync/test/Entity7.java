@@ -0,0 +1,21 @@
+package eu.miltema.slimdbsync.test;
+
+import java.time.LocalDate;
+import javax.persistence.*;
+import eu.miltema.slimdbsync.*;
+
+@Partitioned(column = "created", partitions = @Partition(name = "entity7_2024", bounds = "FROM ('2024-01-01') TO ('2025-01-01')"))
+public class Entity7 {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	public LocalDate created;
+
+	public Entity7() {
+	}
+
+	public Entity7(LocalDate created) {
+		this.created = created;
+	}
+}
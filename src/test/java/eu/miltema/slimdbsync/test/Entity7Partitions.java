@@ -0,0 +1,17 @@
+package eu.miltema.slimdbsync.test;
+
+import java.time.LocalDate;
+import javax.persistence.*;
+import eu.miltema.slimdbsync.*;
+
+@Table(name = "entity7")
+@Partitioned(column = "created", partitions = {
+		@Partition(name = "entity7_2024", bounds = "FROM ('2024-01-01') TO ('2025-01-01')"),
+		@Partition(name = "entity7_2025", bounds = "FROM ('2025-01-01') TO ('2026-01-01')")})
+public class Entity7Partitions {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	public LocalDate created;
+}
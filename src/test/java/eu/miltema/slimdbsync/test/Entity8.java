@@ -0,0 +1,12 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimorm.JSon;
+
+public class Entity8 {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	@JSon public String[] tags;
+}
@@ -0,0 +1,15 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+import eu.miltema.slimdbsync.*;
+import eu.miltema.slimorm.JSon;
+
+@Indexes(@Index(value = "tags", method = IndexMethod.GIN, operatorClass = "jsonb_path_ops"))
+@Table(name = "entity8")
+public class Entity8Jsonb {
+
+	@Id
+	@GeneratedValue
+	public Integer id;
+	@JSon public String[] tags;
+}
@@ -0,0 +1,12 @@
+package eu.miltema.slimdbsync.test;
+
+import javax.persistence.*;
+
+@Table(name = "entity_fkey")
+public class EntityFKeyPartitioned {
+
+	public int id;
+
+	@ManyToOne
+	public Entity7 entity7;
+}
@@ -2,21 +2,49 @@ package eu.miltema.slimdbsync.test;
 
 import static org.junit.Assert.assertEquals;
 
-import eu.miltema.slimdbsync.SchemaGenerator;
+import java.util.*;
+
+import eu.miltema.slimdbsync.*;
 import eu.miltema.slimorm.Database;
 
 public class SchemaGenEx extends SchemaGenerator {
 	private int expectedStatementCount;
+	private int expectedDeferredCount = -1;
+	private int expectedValidationCount = -1;
 
 	public SchemaGenEx(Database db, int expectedStatementCount) {
 		super(db);
 		this.expectedStatementCount = expectedStatementCount;
 	}
 
+	public SchemaGenEx(Database db, int expectedStatementCount, int expectedDeferredCount) {
+		this(db, expectedStatementCount);
+		this.expectedDeferredCount = expectedDeferredCount;
+	}
+
+	@Override
+	protected void applyChanges(SyncContext ctx, List<DdlStatement> ddlChanges) throws Exception {
+		assertEquals(expectedStatementCount, ddlChanges.size());
+		super.applyChanges(ctx, ddlChanges);
+	}
+
+	@Override
+	protected void applyDeferredChanges(SyncContext ctx, List<DdlStatement> ddlChanges) throws Exception {
+		if (expectedDeferredCount >= 0)
+			assertEquals(expectedDeferredCount, ddlChanges.size());
+		super.applyDeferredChanges(ctx, ddlChanges);
+	}
+
+	public SchemaGenEx expectValidations(int expectedValidationCount) {
+		this.expectedValidationCount = expectedValidationCount;
+		return this;
+	}
+
 	@Override
-	protected void applyChanges(String ddlChanges) throws Exception {
-		assertEquals(expectedStatementCount, ddlChanges.split(";").length - 1);
-		super.applyChanges(ddlChanges);
+	protected void applyValidations(SyncContext ctx, Map<String, List<DdlStatement>> validations) throws Exception {
+		if (expectedValidationCount >= 0)
+			assertEquals(expectedValidationCount, validations.values().stream().mapToInt(List::size).sum());
+		super.applyValidations(ctx, validations);
 	}
 
 }
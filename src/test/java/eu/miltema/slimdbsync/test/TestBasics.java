@@ -2,8 +2,11 @@ package eu.miltema.slimdbsync.test;
 
 import static org.junit.Assert.*;
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
 import org.junit.*;
-import eu.miltema.slimdbsync.SchemaGenerator;
+import eu.miltema.slimdbsync.*;
+import eu.miltema.slimorm.Database;
 
 public class TestBasics extends AbstractDatabaseTest {
 
@@ -32,6 +35,104 @@ public class TestBasics extends AbstractDatabaseTest {
 		assertNotNull(db.getById(Entity1.class, e.id));
 	}
 
+	@Test
+	public void testSequenceParameters() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		new SchemaGenEx(db, 1).sync(Entity1Sequence.class);//alter sequence cache
+		new SchemaGenEx(db, 0).sync(Entity1Sequence.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Sequence.class));
+	}
+
+	@Test
+	public void testRenamedSequence() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		db.insert(new Entity1("John"));
+		List<String> messages = new ArrayList<>();
+		new SchemaGenEx(db, 2).setLogger(messages::add).sync(Entity1Generator.class);//rename sequence, alter start and minvalue
+		assertTrue(messages.stream().anyMatch(m -> m.startsWith("Warning: sequence entity1_ids has increment 1")));//allocationSize 50 is not applied
+		new SchemaGenEx(db, 0).sync(Entity1Generator.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Generator.class));
+		assertEquals(2, db.insert(new Entity1("Jack")).id.intValue());
+	}
+
+	@Test
+	public void testMigrateToIdentity() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		db.insert(new Entity1("John"));
+		new SchemaGenEx(db, 4).sync(Entity1Identity.class);//drop default, add identity, continue identity from sequence, drop sequence
+		new SchemaGenEx(db, 0).sync(Entity1Identity.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Identity.class));
+		assertEquals(2, db.insert(new Entity1("Jack")).id.intValue());
+	}
+
+	@Test
+	public void testMigrateToIdentityConcurrently() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		db.insert(new Entity1("John"));
+		new SchemaGenEx(db, 4).ddlParallelism(4).sync(Entity1Identity.class);//identity changes of the column are committed together
+		assertEquals(2, db.insert(new Entity1("Jack")).id.intValue());
+	}
+
+	@Test
+	public void testPartitionedTable() throws Exception {
+		new SchemaGenerator(db).sync(Entity7.class);
+		db.insert(new Entity7(LocalDate.of(2024, 5, 1)));
+		new SchemaGenEx(db, 1).sync(Entity7Partitions.class);//add partition entity7_2025
+		db.insert(new Entity7(LocalDate.of(2025, 5, 1)));
+		new SchemaGenEx(db, 0).sync(Entity7.class);//undeclared partition is kept
+		assertTrue(new SchemaGenerator(db).verify(Entity7Partitions.class));
+		assertEquals(2, db.listAll(Entity7.class).size());
+	}
+
+	@Test
+	public void testStorageParameters() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		new SchemaGenEx(db, 1).sync(Entity1Storage.class);//set fillfactor and toast autovacuum
+		new SchemaGenEx(db, 0).sync(Entity1Storage.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Storage.class));
+		execSql("ALTER TABLE entity1 SET (autovacuum_enabled=false)");
+		assertFalse(new SchemaGenerator(db).verify(Entity1Storage.class));
+		new SchemaGenEx(db, 1).sync(Entity1Storage.class);//reset autovacuum_enabled
+		new SchemaGenEx(db, 0).sync(Entity1.class);//storage parameters of tables without @TableStorage are not managed
+	}
+
+	@Test
+	public void testUnloggedTable() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		new SchemaGenEx(db, 2).sync(Entity1Unlogged.class);//set unlogged, create index; table is already in default tablespace
+		new SchemaGenEx(db, 0).sync(Entity1Unlogged.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Unlogged.class));
+		new SchemaGenEx(db, 1).sync(Entity1.class);//drop index; persistence of table without @TableStorage is not managed
+	}
+
+	@Test
+	public void testMoveTablespace() throws Exception {
+		try {
+			db.transaction((db, connection) -> {
+				connection.setAutoCommit(true);//CREATE TABLESPACE cannot run inside a transaction block
+				try(Statement stmt = connection.createStatement()) {
+					stmt.execute("SET allow_in_place_tablespaces = true");
+					stmt.execute("DROP TABLESPACE IF EXISTS slimtest_space");
+					stmt.execute("CREATE TABLESPACE slimtest_space LOCATION ''");
+				}
+				finally {
+					connection.setAutoCommit(false);
+				}
+				return null;
+			});
+		}
+		catch(Exception e) {
+			Assume.assumeNoException("In-place tablespace requires PostgreSQL 15+ and superuser", e);
+		}
+		new SchemaGenerator(db).sync(Entity1.class);
+		db.insert(new Entity1("John"));
+		new SchemaGenEx(db, 2).sync(Entity1Tablespace.class);//move table, create index in tablespace
+		new SchemaGenEx(db, 0).sync(Entity1Tablespace.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1Tablespace.class));
+		new SchemaGenEx(db, 3).sync(Entity1Unlogged.class);//set unlogged, move table and index back to default tablespace
+		assertEquals(1, db.listAll(Entity1.class).size());
+	}
+
 	@Test
 	public void testTableCustomNames() throws Exception {
 		new SchemaGenerator(db).sync(EntityCustomNames.class);
@@ -143,12 +244,95 @@ public class TestBasics extends AbstractDatabaseTest {
 		db.insert(new Entity2(null, 123));//name is null, NOT NULL constraint must throw exception
 	}
 
+	@Test(expected = SQLException.class)
+	public void testAlterColumnOnlineNotNull() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 123));
+		new SchemaGenEx(db, 4, 4).onlineNotNull(true).sync(Entity2Altered.class);//name nullability is changed with 4 deferred statements
+		new SchemaGenEx(db, 0, 0).onlineNotNull(true).sync(Entity2Altered.class);//helper check constraint has been dropped
+		db.insert(new Entity2(null, 123));//name is null, NOT NULL constraint must throw exception
+	}
+
+	@Test(expected = SchemaUpdateException.class)
+	public void testRefuseLargeRewrite() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 123));
+		execSql("ANALYZE entity2");
+		new SchemaGenerator(db).maxRewritePages(0).sync(Entity2Altered.class);//count2 type change rewrites a non-empty table
+	}
+
+	@Test
+	public void testDeferLargeRewrite() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 123));
+		execSql("ANALYZE entity2");
+		new SchemaGenEx(db, 4).maxRewritePages(0).deferLargeRewrites(true).sync(Entity2Altered.class);//all changes except count2 type
+		new SchemaGenEx(db, 1).sync(Entity2Altered.class);//count2 type
+	}
+
+	@Test(expected = SchemaUpdateException.class)
+	public void testLockTimeout() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		try(Connection conn = DriverManager.getConnection("jdbc:postgresql://localhost:5432/slimtest", "slimuser", "slim1234")) {
+			conn.setAutoCommit(false);
+			conn.createStatement().execute("LOCK TABLE entity1 IN ACCESS SHARE MODE");//simulates a long-running report
+			new SchemaGenerator(db).lockTimeout(50).lockRetryLimit(500).sync(Entity1WithCount.class);//gives up after retries
+		}
+	}
+
+	@Test
+	public void testLockTimeoutRetry() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		try(Connection conn = DriverManager.getConnection("jdbc:postgresql://localhost:5432/slimtest", "slimuser", "slim1234")) {
+			conn.setAutoCommit(false);
+			conn.createStatement().execute("LOCK TABLE entity1 IN ACCESS SHARE MODE");
+			new Thread(() -> {
+				try {
+					Thread.sleep(300);
+					conn.rollback();//report finishes
+				}
+				catch(Exception e) {
+				}
+			}).start();
+			new SchemaGenEx(db, 1).lockTimeout(50).lockRetryLimit(10_000).sync(Entity1WithCount.class);
+		}
+		db.insert(new Entity1WithCount("Jack", 15));
+	}
+
 	@Test
 	public void testNoChanges() throws Exception {
 		new SchemaGenerator(db).sync(EntityWithTypes.class);
 		new SchemaGenEx(db, 0).sync(EntityWithTypes.class);
 	}
 
+	@Test
+	public void testParallelCatalogLoading() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class);
+		new SchemaGenEx(db, 0).catalogParallelism(7).sync(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class);
+		new SchemaGenEx(db, 1).catalogParallelism(7).sync(Entity1.class, EntityFKey.class, Entity2Index.class);//drop table
+	}
+
+	@Test
+	public void testDdlParallelism() throws Exception {
+		new SchemaGenerator(db).ddlParallelism(4).sync(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class);
+		new SchemaGenEx(db, 0).sync(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class);
+		new SchemaGenEx(db, 1).ddlParallelism(4).sync(Entity1.class, EntityFKey.class, Entity2Index.class);//drop table
+	}
+
+	@Test
+	public void testSyncSchemas() throws Exception {
+		execSql("DROP SCHEMA IF EXISTS tenant1 CASCADE; DROP SCHEMA IF EXISTS tenant2 CASCADE; CREATE SCHEMA tenant1; CREATE SCHEMA tenant2");
+		List<SchemaSyncResult> results = new SchemaGenerator(db).connectionBudget(2).syncSchemas(Arrays.asList("tenant1", "tenant2", "missing_tenant"),
+				schema -> new Database("org.postgresql.Driver", "jdbc:postgresql://localhost:5432/slimtest?currentSchema=" + schema, "slimuser", "slim1234"),
+				Entity1.class);
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertTrue(results.get(1).isSuccess());
+		assertFalse(results.get(2).isSuccess());//failure of one schema does not affect others
+		execSql("SELECT id, name FROM tenant2.entity1");
+		execSql("DROP SCHEMA tenant1 CASCADE; DROP SCHEMA tenant2 CASCADE");
+	}
+
 	@Test
 	public void testColumnOrder() throws Exception {
 		new SchemaGenerator(db).sync(Entity2.class);
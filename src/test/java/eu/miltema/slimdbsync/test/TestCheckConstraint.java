@@ -1,5 +1,6 @@
 package eu.miltema.slimdbsync.test;
 
+import static org.junit.Assert.*;
 import java.sql.SQLException;
 import org.junit.*;
 import eu.miltema.slimdbsync.SchemaGenerator;
@@ -43,6 +44,41 @@ public class TestCheckConstraint extends AbstractDatabaseTest {
 		db.insert(new Entity2("Mary", 15));//exception must be thrown since valid values are John, Jack, Joe
 	}
 
+	@Test(expected = SQLException.class)
+	public void testAddConstraintNotValid() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 15));
+		new SchemaGenEx(db, 1).notValidConstraints(true).validationParallelism(4).sync(Entity2Enum.class);//add check constraint as NOT VALID, then validate
+		db.insert(new Entity2("Mary", 15));//exception must be thrown since valid values are John, Jack, Joe
+	}
+
+	@Test(expected = SQLException.class)
+	public void testNativeEnum() throws Exception {
+		new SchemaGenEx(db, 4).nativeEnums(true).sync(Entity2Enum.class);//sequence, enum type, table and primary key
+		new SchemaGenEx(db, 0).nativeEnums(true).sync(Entity2Enum.class);
+		assertTrue(new SchemaGenerator(db).nativeEnums(true).verify(Entity2Enum.class));
+		execSql("INSERT INTO entity2(name, count2) VALUES ('Joe', 15)");
+		execSql("INSERT INTO entity2(name, count2) VALUES ('Mary', 15)");//exception must be thrown since valid values are John, Jack, Joe
+	}
+
+	@Test
+	public void testMigrateToNativeEnum() throws Exception {
+		new SchemaGenerator(db).sync(Entity2Enum.class);
+		execSql("INSERT INTO entity2(name, count2) VALUES ('Joe', 15)");
+		new SchemaGenEx(db, 3).nativeEnums(true).sync(Entity2Enum.class);//create enum type, convert column, drop check constraint
+		new SchemaGenEx(db, 2).sync(Entity2Enum.class);//convert column back, add check constraint
+	}
+
+	@Test
+	public void testKeepEnumTypeUsedElsewhere() throws Exception {
+		new SchemaGenEx(db, 4).nativeEnums(true).sync(Entity2Enum.class);//sequence, enum type, table and primary key
+		new SchemaGenEx(db, 2).nativeEnums(true).sync(Entity2.class);//convert column, drop unused enum type
+		new SchemaGenEx(db, 2).nativeEnums(true).sync(Entity2Enum.class);//create enum type, convert column
+		execSql("CREATE FUNCTION entity2_is_joe(n entity2_enum_name) RETURNS boolean AS 'SELECT n = ''Joe''' LANGUAGE sql");
+		new SchemaGenEx(db, 1).nativeEnums(true).sync(Entity2.class);//convert column, keep enum type used by function
+		new SchemaGenEx(db, 0).nativeEnums(true).sync(Entity2.class);
+	}
+
 	@Test
 	public void testDropConstraint() throws Exception {
 		new SchemaGenerator(db).sync(Entity2Enum.class);
@@ -0,0 +1,39 @@
+package eu.miltema.slimdbsync.test;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import eu.miltema.slimdbsync.SchemaGenerator;
+
+public class TestFingerprint extends AbstractDatabaseTest {
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		initDatabase();
+	}
+
+	@Before
+	public void setup() throws Exception {
+		dropAllArtifacts();
+	}
+
+	@Test
+	public void testUnchangedModelIsSkipped() throws Exception {
+		new SchemaGenerator(db).fingerprint(true).sync(Entity1.class);
+		new SchemaGenEx(db, -1).fingerprint(true).sync(Entity1.class);//applyChanges must not be invoked at all
+	}
+
+	@Test
+	public void testChangedModelIsSynced() throws Exception {
+		new SchemaGenerator(db).fingerprint(true).sync(Entity1.class);
+		new SchemaGenEx(db, 1).fingerprint(true).sync(Entity1WithCount.class);//add column count
+		Entity1WithCount e = db.insert(new Entity1WithCount("Jack", 15));
+		assertEquals(15, db.getById(Entity1WithCount.class, e.id).count.intValue());
+		new SchemaGenEx(db, -1).fingerprint(true).sync(Entity1WithCount.class);//applyChanges must not be invoked at all
+	}
+
+	@Test
+	public void testMetadataTableIsNotDropped() throws Exception {
+		new SchemaGenerator(db).fingerprint(true).sync(Entity1.class);
+		new SchemaGenEx(db, 0).sync(Entity1.class);//metadata table is not an unused table
+	}
+}
@@ -1,5 +1,9 @@
 package eu.miltema.slimdbsync.test;
 
+import static org.junit.Assert.*;
+
+import java.sql.*;
+
 import org.junit.*;
 
 import eu.miltema.slimdbsync.SchemaGenerator;
@@ -38,6 +42,99 @@ public class TestIndex extends AbstractDatabaseTest {
 	@Test
 	public void testNoChanges() throws Exception {
 		new SchemaGenerator(db).sync(Entity2Index.class);
-		new SchemaGenEx(db, 2).sync(Entity2Index.class);
+		new SchemaGenEx(db, 0).sync(Entity2Index.class);
+	}
+
+	@Test
+	public void testIndexOptions() throws Exception {
+		new SchemaGenerator(db).sync(Entity2Index.class);
+		new SchemaGenEx(db, 5).sync(Entity2IndexOptions.class);//drop 2 indexes, add brin, partial expression and covering index
+		new SchemaGenEx(db, 0).sync(Entity2IndexOptions.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2IndexOptions.class));
+	}
+
+	@Test
+	public void testPredicateChanges() throws Exception {
+		new SchemaGenEx(db, 4).sync(Entity2Predicate.class);//sequence, table, primary key and partial index
+		new SchemaGenEx(db, 0).sync(Entity2Predicate.class);
+		new SchemaGenEx(db, 2).sync(Entity2PredicateGrouped.class);//different grouping: drop and create index
+		new SchemaGenEx(db, 0).sync(Entity2PredicateGrouped.class);
+		new SchemaGenEx(db, 2).sync(Entity2PredicateLiteral.class);//different literal: drop and create index
+		new SchemaGenEx(db, 0).sync(Entity2PredicateLiteral.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2PredicateLiteral.class));
+	}
+
+	@Test
+	public void testPredicatePrintedDifferently() throws Exception {
+		new SchemaGenEx(db, 4).sync(Entity2PredicateRange.class);//IN and BETWEEN are stored as = ANY and >= AND <=
+		new SchemaGenEx(db, 0).sync(Entity2PredicateRange.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2PredicateRange.class));
+	}
+
+	@Test
+	public void testCastOfColumn() throws Exception {
+		new SchemaGenEx(db, 5).sync(Entity2Created.class);//sequence, table, primary key, index on created and index on created::date
+		new SchemaGenEx(db, 0).sync(Entity2Created.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2Created.class));
+		new SchemaGenerator(db).sync(Entity2.class);
+		new SchemaGenEx(db, 3).sync(Entity2Created.class);//add column and both indexes
+	}
+
+	@Test
+	public void testJsonbGinIndex() throws Exception {
+		new SchemaGenerator(db).sync(Entity8.class);
+		execSql("INSERT INTO entity8(tags) VALUES ('[\"a\", \"b\"]')");
+		new SchemaGenEx(db, 2).jsonb(true).sync(Entity8Jsonb.class);//convert json to jsonb, add gin index
+		new SchemaGenEx(db, 0).jsonb(true).sync(Entity8Jsonb.class);
+		assertTrue(new SchemaGenerator(db).jsonb(true).verify(Entity8Jsonb.class));
+	}
+
+	@Test
+	public void testAddIndexesConcurrently() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		new SchemaGenEx(db, 0, 2).concurrentIndexes(true).sync(Entity2Index.class);//2 indexes are built outside main transaction
+		new SchemaGenEx(db, 0).sync(Entity2Index.class);
+	}
+
+	@Test
+	public void testParallelIndexBuilds() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		new SchemaGenEx(db, 0, 2).concurrentIndexes(true).indexParallelism(2).maintenanceWorkMem(128).maintenanceWorkers(2).indexMemoryBudget(200).sync(Entity2Index.class);
+		new SchemaGenEx(db, 0).sync(Entity2Index.class);
+	}
+
+	@Test
+	public void testDropIndexesConcurrently() throws Exception {
+		new SchemaGenerator(db).sync(Entity2Index.class);
+		new SchemaGenEx(db, 0, 2).concurrentIndexes(true).sync(Entity2.class);//2 indexes are dropped outside main transaction
+		new SchemaGenEx(db, 0).sync(Entity2.class);
+	}
+
+	@Test
+	public void testNewTableIndexesNotConcurrent() throws Exception {
+		new SchemaGenEx(db, 5, 0).concurrentIndexes(true).sync(Entity2Index.class);//sequence, table, primary key and 2 indexes
+	}
+
+	@Test
+	public void testDropInvalidIndex() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 5));
+		try {
+			db.transaction((db, conn) -> {
+				conn.setAutoCommit(true);
+				try(Statement stmt = conn.createStatement()) {
+					stmt.execute("CREATE INDEX CONCURRENTLY ON entity2 ((100 / (count2 - 5)))");//fails and leaves an invalid index behind
+				}
+				finally {
+					conn.setAutoCommit(false);
+				}
+				return null;
+			});
+			fail();
+		}
+		catch(Exception e) {
+		}
+		new SchemaGenEx(db, 0, 1).concurrentIndexes(true).sync(Entity2.class);//drop invalid index
+		new SchemaGenEx(db, 0, 0).concurrentIndexes(true).sync(Entity2.class);
 	}
 }
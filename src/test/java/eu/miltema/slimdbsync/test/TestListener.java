@@ -0,0 +1,76 @@
+package eu.miltema.slimdbsync.test;
+
+import static org.junit.Assert.*;
+import java.nio.file.*;
+import java.util.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.*;
+import org.junit.*;
+import eu.miltema.slimdbsync.*;
+
+public class TestListener extends AbstractDatabaseTest {
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		initDatabase();
+	}
+
+	@Before
+	public void setup() throws Exception {
+		dropAllArtifacts();
+	}
+
+	@Test
+	public void testEvents() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		List<String> phases = new ArrayList<>();
+		List<String> queries = new ArrayList<>();
+		List<DdlStatement> statements = new ArrayList<>();
+		new SchemaGenerator(db).addListener(new SyncListener() {
+			@Override
+			public void phaseCompleted(String phase, long nanos) {
+				phases.add(phase);
+			}
+
+			@Override
+			public void catalogQueryCompleted(String query, long nanos) {
+				queries.add(query);
+			}
+
+			@Override
+			public void statementExecuted(DdlStatement statement, long nanos, long lockWaitNanos) {
+				statements.add(statement);
+			}
+		}).sync(Entity1WithCount.class);
+		assertEquals(Arrays.asList("initModelTables", "loadCurrentSchema", "detectChanges", "applyChanges", "applyDeferredChanges", "applyValidations"), phases);
+		assertTrue(queries.contains("loadCurrentTables"));
+		assertEquals(1, statements.size());
+		assertEquals(DdlStatement.Kind.ADD_COLUMN, statements.get(0).kind);
+	}
+
+	@Test
+	public void testJfrListener() throws Exception {
+		Path file = Files.createTempFile("slimdbsync", ".jfr");
+		try(Recording recording = new Recording()) {
+			recording.enable("eu.miltema.slimdbsync.Phase");
+			recording.enable("eu.miltema.slimdbsync.Statement");
+			recording.start();
+			new SchemaGenerator(db).addListener(new JfrSyncListener()).sync(Entity1.class);
+			recording.stop();
+			recording.dump(file);
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			assertEquals(6, events.stream().filter(e -> e.getEventType().getName().equals("eu.miltema.slimdbsync.Phase")).count());
+			RecordedEvent createTable = events.stream().filter(e -> e.getEventType().getName().equals("eu.miltema.slimdbsync.Statement") &&
+					"CREATE_TABLE".equals(e.getString("kind")) && "entity1".equals(e.getString("table"))).findFirst().get();
+			assertFalse(createTable.getBoolean("failed"));
+			assertFalse(createTable.getDuration().isZero());//event spans the execution of the statement
+			RecordedEvent applyChanges = events.stream().filter(e -> e.getEventType().getName().equals("eu.miltema.slimdbsync.Phase") &&
+					"applyChanges".equals(e.getString("phase"))).findFirst().get();
+			assertFalse(createTable.getStartTime().isBefore(applyChanges.getStartTime()));
+			assertFalse(createTable.getEndTime().isAfter(applyChanges.getEndTime()));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+}
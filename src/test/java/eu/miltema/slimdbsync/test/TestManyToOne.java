@@ -6,7 +6,7 @@ import java.sql.SQLException;
 
 import org.junit.*;
 
-import eu.miltema.slimdbsync.SchemaGenerator;
+import eu.miltema.slimdbsync.*;
 import eu.miltema.slimorm.RecordNotFoundException;
 
 public class TestManyToOne extends AbstractDatabaseTest {
@@ -48,6 +48,38 @@ public class TestManyToOne extends AbstractDatabaseTest {
 		db.insert(new EntityFKey("John", e));//added constraint must catch invalid id
 	}
 
+	@Test(expected = SQLException.class)
+	public void testAddConstraintNotValid() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class, EntityFKeyNoConstraint.class);
+		new SchemaGenEx(db, 1).notValidConstraints(true).sync(Entity1.class, EntityFKey.class);//add constraint as NOT VALID, then validate
+		Entity1 e = new Entity1();
+		e.id = 99999;//invalid id
+		db.insert(new EntityFKey("John", e));//added constraint must catch invalid id
+	}
+
+	@Test
+	public void testNotValidConstraintFailsValidation() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class, EntityFKeyNoConstraint.class);
+		Entity1 e = new Entity1();
+		e.id = 99999;//invalid id
+		db.insert(new EntityFKey("John", e));
+		try {
+			new SchemaGenerator(db).notValidConstraints(true).sync(Entity1.class, EntityFKey.class);
+			fail();
+		}
+		catch(SchemaUpdateException sue) {
+		}
+		assertFalse(new SchemaGenerator(db).verify(Entity1.class, EntityFKey.class));//NOT VALID constraint remains in place and rejects new invalid ids
+		execSql("DELETE FROM entity_fkey WHERE name = 'John'");
+		new SchemaGenEx(db, 0).expectValidations(1).sync(Entity1.class, EntityFKey.class);//failed validation is retried
+		assertTrue(new SchemaGenerator(db).verify(Entity1.class, EntityFKey.class));
+	}
+
+	@Test(expected = SchemaUpdateException.class)
+	public void testReferToPartitionedTable() throws Exception {
+		new SchemaGenerator(db).sync(Entity7.class, EntityFKeyPartitioned.class);//primary key of entity7 is (id, created)
+	}
+
 	@Test
 	public void testDropConstraint() throws Exception {
 		new SchemaGenerator(db).sync(Entity1.class, EntityFKey.class);
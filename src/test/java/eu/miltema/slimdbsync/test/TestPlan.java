@@ -0,0 +1,70 @@
+package eu.miltema.slimdbsync.test;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import org.junit.*;
+import eu.miltema.slimdbsync.*;
+
+public class TestPlan extends AbstractDatabaseTest {
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		initDatabase();
+	}
+
+	@Before
+	public void setup() throws Exception {
+		dropAllArtifacts();
+	}
+
+	@Test
+	public void testNoChanges() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		assertTrue(new SchemaGenerator(db).plan(Entity2.class).isEmpty());
+	}
+
+	@Test
+	public void testPlanIsNotApplied() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		MigrationPlan plan = new SchemaGenerator(db).plan(Entity1WithCount.class);
+		assertEquals(1, plan.entries.size());
+		MigrationPlan.Entry entry = plan.entries.get(0);
+		assertEquals(DdlStatement.Kind.ADD_COLUMN, entry.kind);
+		assertEquals("entity1", entry.tableName);
+		assertEquals("ACCESS EXCLUSIVE", entry.lockLevel);
+		assertFalse(entry.rewritesTable);
+		new SchemaGenEx(db, 1).sync(Entity1WithCount.class);//column was not added by plan
+	}
+
+	@Test
+	public void testRewrite() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 123));
+		execSql("ANALYZE entity2");
+		MigrationPlan plan = new SchemaGenerator(db).plan(Entity2Altered.class);
+		assertEquals(1, plan.getRewrites().size());//count2 type
+		assertEquals(DdlStatement.Kind.ALTER_COLUMN_TYPE, plan.getRewrites().get(0).kind);
+		assertEquals(1, plan.getRewrites().get(0).estimatedRows);
+		assertTrue(plan.getRewrites().get(0).pages > 0);
+	}
+
+	@Test
+	public void testLargeRewriteIsReported() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 123));
+		execSql("ANALYZE entity2");
+		List<String> messages = new ArrayList<>();
+		MigrationPlan plan = new SchemaGenerator(db).setLogger(messages::add).maxRewritePages(0).plan(Entity2Altered.class);//sync would refuse count2 type change
+		assertEquals(1, plan.getRewrites().size());
+		assertTrue(plan.getRewrites().get(0).exceedsMaxRewritePages);
+		assertTrue(messages.toString(), messages.isEmpty());//changes are not logged as applied
+	}
+
+	@Test
+	public void testConcurrentIndexLockLevel() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		MigrationPlan plan = new SchemaGenerator(db).concurrentIndexes(true).plan(Entity2Index.class);
+		assertEquals(MigrationPlan.Phase.DEFERRED, plan.entries.get(0).phase);
+		assertEquals("SHARE UPDATE EXCLUSIVE", plan.entries.get(0).lockLevel);
+	}
+}
@@ -1,6 +1,6 @@
 package eu.miltema.slimdbsync.test;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import java.sql.SQLException;
 
@@ -71,6 +71,40 @@ public class TestUnique extends AbstractDatabaseTest {
 		db.insert(new Entity2UniqueFields("John", 16));
 	}
 
+	@Test(expected = SQLException.class)
+	public void testAddUniqueConcurrently() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		new SchemaGenEx(db, 0, 2).concurrentIndexes(true).sync(Entity2UniqueField.class);//build index concurrently & attach it
+		new SchemaGenEx(db, 0, 0).concurrentIndexes(true).sync(Entity2UniqueField.class);
+		db.insert(new Entity2UniqueField("John", 16));
+		db.insert(new Entity2UniqueField("John", 23));//should fail
+	}
+
+	@Test
+	public void testAddUniqueConcurrentlyRetry() throws Exception {
+		new SchemaGenerator(db).sync(Entity2.class);
+		db.insert(new Entity2("John", 16));
+		db.insert(new Entity2("John", 23));
+		try {
+			new SchemaGenerator(db).concurrentIndexes(true).sync(Entity2UniqueField.class);//duplicates leave an invalid index behind
+			fail();
+		}
+		catch(Exception e) {
+		}
+		execSql("DELETE FROM entity2 WHERE count2=23");
+		new SchemaGenEx(db, 0, 3).concurrentIndexes(true).sync(Entity2UniqueField.class);//drop invalid index, build index & attach it
+		new SchemaGenEx(db, 0, 0).concurrentIndexes(true).sync(Entity2UniqueField.class);
+	}
+
+	@Test
+	public void testDropUniqueConcurrently() throws Exception {
+		new SchemaGenerator(db).concurrentIndexes(true).sync(Entity2.class);
+		new SchemaGenerator(db).concurrentIndexes(true).sync(Entity2UniqueField.class);
+		new SchemaGenEx(db, 1, 0).concurrentIndexes(true).sync(Entity2.class);//drop constraint, together with attached index
+		db.insert(new Entity2UniqueField("John", 16));
+		db.insert(new Entity2UniqueField("John", 16));
+	}
+
 	public void testNoChanges() throws Exception {
 		new SchemaGenerator(db).sync(Entity2UniqueField.class);
 		new SchemaGenEx(db, 0).sync(Entity2UniqueField.class);
@@ -0,0 +1,53 @@
+package eu.miltema.slimdbsync.test;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import eu.miltema.slimdbsync.SchemaGenerator;
+
+public class TestVerify extends AbstractDatabaseTest {
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		initDatabase();
+	}
+
+	@Before
+	public void setup() throws Exception {
+		dropAllArtifacts();
+	}
+
+	@Test
+	public void testInSync() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity1.class, EntityFKey.class, Entity2Index.class, EntityWithTypes.class));
+	}
+
+	@Test
+	public void testConstraintsInSync() throws Exception {
+		new SchemaGenerator(db).sync(Entity2Enum.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2Enum.class));
+		new SchemaGenerator(db).sync(Entity2UniqueFields.class);
+		assertTrue(new SchemaGenerator(db).verify(Entity2UniqueFields.class));
+	}
+
+	@Test
+	public void testManualColumn() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		execSql("ALTER TABLE entity1 ADD COLUMN manual integer");
+		assertFalse(new SchemaGenerator(db).verify(Entity1.class));
+	}
+
+	@Test
+	public void testManualIndex() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class);
+		execSql("CREATE INDEX ON entity1(name)");
+		assertFalse(new SchemaGenerator(db).verify(Entity1.class));
+	}
+
+	@Test
+	public void testUnusedTableIgnored() throws Exception {
+		new SchemaGenerator(db).sync(Entity1.class, Entity2.class);
+		assertFalse(new SchemaGenerator(db).verify(Entity2.class));
+		assertTrue(new SchemaGenerator(db).dropUnused(false).verify(Entity2.class));
+	}
+}
@@ -7,13 +7,20 @@ DROP TABLE IF EXISTS public.entity3 CASCADE;
 DROP TABLE IF EXISTS public.entity4 CASCADE;
 DROP TABLE IF EXISTS public.entity5 CASCADE;
 DROP TABLE IF EXISTS public.entity6 CASCADE;
+DROP TABLE IF EXISTS public.entity7 CASCADE;
+DROP TABLE IF EXISTS public.entity8 CASCADE;
 DROP TABLE IF EXISTS public.custom_table CASCADE;
+DROP TABLE IF EXISTS public.slimdbsync_metadata CASCADE;
 
 DROP SEQUENCE IF EXISTS public.entity_fkey_id_seq CASCADE;
 DROP SEQUENCE IF EXISTS public.entity1_id_seq CASCADE;
+DROP SEQUENCE IF EXISTS public.entity1_ids CASCADE;
 DROP SEQUENCE IF EXISTS public.id_seq2 CASCADE;
 DROP SEQUENCE IF EXISTS public.id_seq3 CASCADE;
 DROP SEQUENCE IF EXISTS public.entity3_id_seq CASCADE;
 DROP SEQUENCE IF EXISTS public.entity4_id_seq CASCADE;
 DROP SEQUENCE IF EXISTS public.entity5_id_seq CASCADE;
 DROP SEQUENCE IF EXISTS public.entity6_id_seq CASCADE;
+DROP SEQUENCE IF EXISTS public.entity7_id_seq CASCADE;
+DROP SEQUENCE IF EXISTS public.entity8_id_seq CASCADE;
+DROP TYPE IF EXISTS public.entity2_enum_name CASCADE;